@@ -0,0 +1,102 @@
+package ${PROJECT_PACKAGE_NAME};
+
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+/**
+ * An animation clip: a sequence of atlas regions, each shown for a number of
+ * milliseconds.
+ * <p>
+ * Frame durations are turned once into a table of frame end times, so that the
+ * frame shown at any clip time is found without any computation on the
+ * durations. Clips are shared by all the entities playing them; the playing
+ * state of each entity is kept by the {@link AnimationSystem}.
+ */
+public class Animation {
+    public final String name;
+    public final AtlasRegion[] frames;
+    /**
+     * End time of each frame, from the clip start, in milliseconds.
+     */
+    public final int[] frameEnds;
+    /**
+     * Total duration of the clip, in milliseconds.
+     */
+    public final int duration;
+    /**
+     * Restart the clip when its end is reached, or stay on its last frame.
+     */
+    public final boolean loop;
+
+    /**
+     * Creates a new clip.
+     *
+     * @param name      the clip name
+     * @param frames    the regions of the frames
+     * @param durations the duration of each frame, in milliseconds
+     * @param loop      true to restart the clip at its end.
+     */
+    public Animation(String name, AtlasRegion[] frames, int[] durations, boolean loop) {
+        if (frames.length == 0 || frames.length != durations.length) {
+            throw new IllegalArgumentException(
+                    "Animation '%s' needs one duration per frame, and at least one frame".formatted(name));
+        }
+        this.name = name;
+        this.frames = frames;
+        this.loop = loop;
+        this.frameEnds = new int[durations.length];
+        int end = 0;
+        for (int i = 0; i < durations.length; i++) {
+            end += Math.max(1, durations[i]);
+            frameEnds[i] = end;
+        }
+        this.duration = end;
+    }
+
+    /**
+     * Slice a sprite sheet into frames registered into an atlas, and create a
+     * clip from them. The frames are read row by row, and are named after the
+     * clip with their index (e.g. {@code walk_0}). Call it at load time, before
+     * {@link TextureAtlas#pack()}.
+     *
+     * @param atlas       the atlas to register the frames into
+     * @param name        the clip name
+     * @param sheet       the sprite sheet image
+     * @param frameWidth  width of a frame into the sheet
+     * @param frameHeight height of a frame into the sheet
+     * @param durations   the duration of each frame, in milliseconds
+     * @param loop        true to restart the clip at its end
+     * @return the new clip.
+     */
+    public static Animation fromSheet(TextureAtlas atlas, String name, BufferedImage sheet,
+            int frameWidth, int frameHeight, int[] durations, boolean loop) {
+        int columns = sheet.getWidth() / frameWidth;
+        int available = columns * (sheet.getHeight() / frameHeight);
+        if (durations.length > available) {
+            Platformer.warn(Animation.class, "Sheet of animation '%s' only holds %d of its %d frames", name,
+                    available, durations.length);
+            durations = Arrays.copyOf(durations, available);
+        }
+        AtlasRegion[] frames = new AtlasRegion[durations.length];
+        for (int i = 0; i < frames.length; i++) {
+            frames[i] = atlas.register(name + "_" + i, sheet.getSubimage(
+                    (i % columns) * frameWidth, (i / columns) * frameHeight, frameWidth, frameHeight));
+        }
+        return new Animation(name, frames, durations, loop);
+    }
+
+    /**
+     * Retrieve the frame shown at a time of the clip.
+     *
+     * @param time the time from the clip start, in milliseconds
+     * @return the index of the frame.
+     */
+    public int frameAt(int time) {
+        if (time >= duration) {
+            time = loop ? time % duration : duration - 1;
+        }
+        int i = Arrays.binarySearch(frameEnds, time);
+        // an exact end time is the start of the next frame.
+        return i >= 0 ? i + 1 : -i - 1;
+    }
+}
@@ -0,0 +1,121 @@
+package ${PROJECT_PACKAGE_NAME};
+
+import java.util.Arrays;
+
+/**
+ * Play the {@link Animation} clips of entities, advancing all of them in one
+ * pass per update.
+ * <p>
+ * The playing state of the animated entities is kept into parallel arrays,
+ * indexed by the {@link Entity#animator} slot of each entity; a stopped entity
+ * slot is filled with the last one. Time is counted in integer milliseconds,
+ * and the current frame only moves forward through the clip frame end table,
+ * so that an update neither allocates nor slices any image: it only swaps the
+ * atlas region of the entities whose frame changed.
+ */
+public class AnimationSystem {
+    private Entity[] entities = new Entity[64];
+    private Animation[] clips = new Animation[64];
+    private int[] times = new int[64];
+    private int[] frames = new int[64];
+    private int count = 0;
+
+    /**
+     * Play a clip on an entity, from its start. Nothing changes if the entity is
+     * already playing this clip.
+     *
+     * @param e    the entity to animate
+     * @param clip the clip to play.
+     */
+    public void play(Entity e, Animation clip) {
+        int i = e.animator;
+        if (i < 0) {
+            if (count == entities.length) {
+                entities = Arrays.copyOf(entities, count * 2);
+                clips = Arrays.copyOf(clips, count * 2);
+                times = Arrays.copyOf(times, count * 2);
+                frames = Arrays.copyOf(frames, count * 2);
+            }
+            i = count++;
+            e.animator = i;
+            entities[i] = e;
+        } else if (clips[i] == clip) {
+            return;
+        }
+        clips[i] = clip;
+        times[i] = 0;
+        frames[i] = 0;
+        e.setSprite(clip.frames[0]);
+    }
+
+    /**
+     * Stop the animation of an entity, keeping its current frame.
+     *
+     * @param e the entity to stop.
+     */
+    public void stop(Entity e) {
+        int i = e.animator;
+        if (i < 0) {
+            return;
+        }
+        int last = --count;
+        entities[i] = entities[last];
+        clips[i] = clips[last];
+        times[i] = times[last];
+        frames[i] = frames[last];
+        entities[i].animator = i;
+        entities[last] = null;
+        clips[last] = null;
+        e.animator = -1;
+    }
+
+    /**
+     * Check if an entity has reached the end of a non looping clip.
+     *
+     * @param e the animated entity
+     * @return true if the clip is over, or the entity is not animated.
+     */
+    public boolean isFinished(Entity e) {
+        int i = e.animator;
+        return i < 0 || (!clips[i].loop && times[i] >= clips[i].duration);
+    }
+
+    /**
+     * Advance all the animations.
+     *
+     * @param elapsed elapsed time since the previous update, in milliseconds.
+     */
+    public void update(int elapsed) {
+        for (int i = 0; i < count; i++) {
+            Animation clip = clips[i];
+            int t = times[i] + elapsed;
+            int f = frames[i];
+            if (t >= clip.duration) {
+                if (clip.loop) {
+                    t %= clip.duration;
+                    f = 0;
+                } else {
+                    t = clip.duration;
+                }
+            }
+            int[] ends = clip.frameEnds;
+            while (f < ends.length - 1 && t >= ends[f]) {
+                f++;
+            }
+            times[i] = t;
+            if (f != frames[i]) {
+                frames[i] = f;
+                entities[i].region = clip.frames[f];
+            }
+        }
+    }
+
+    /**
+     * Retrieve the number of animated entities.
+     *
+     * @return the number of entities playing a clip.
+     */
+    public int size() {
+        return count;
+    }
+}
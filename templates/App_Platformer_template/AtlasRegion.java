@@ -0,0 +1,42 @@
+package ${PROJECT_PACKAGE_NAME};
+
+import java.awt.image.BufferedImage;
+
+/**
+ * A sprite area into a page of a {@link TextureAtlas}.
+ */
+public class AtlasRegion {
+    public final String name;
+    /**
+     * Index of the atlas page holding the sprite, -1 until the atlas is packed.
+     */
+    public int page = -1;
+    public int x, y;
+    public final int width, height;
+    /**
+     * The original sprite, released once packed into the atlas.
+     */
+    public BufferedImage source;
+
+    /**
+     * Creates a new region for a sprite, not packed yet.
+     *
+     * @param name   the sprite name
+     * @param source the sprite image
+     */
+    public AtlasRegion(String name, BufferedImage source) {
+        this.name = name;
+        this.source = source;
+        this.width = source.getWidth();
+        this.height = source.getHeight();
+    }
+
+    /**
+     * Check if the region has been packed into an atlas page.
+     *
+     * @return true if packed.
+     */
+    public boolean isPacked() {
+        return page >= 0;
+    }
+}
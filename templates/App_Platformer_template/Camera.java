@@ -0,0 +1,183 @@
+package ${PROJECT_PACKAGE_NAME};
+
+import java.awt.geom.AffineTransform;
+
+/**
+ * A camera showing a part of the world, scrolled to follow a target and zoomed.
+ * <p>
+ * The camera position is the top-left corner of the visible area, in world
+ * coordinates. The target is followed only when it leaves a dead zone centered
+ * on the view, and the view is kept into the camera bounds, being centered on
+ * them when they are smaller than the view. The whole world is drawn through a
+ * single {@link #getTransform()} call; with {@link #pixelSnap}, its translation
+ * is rounded to whole screen pixels so that images stay aligned on the pixel
+ * grid.
+ */
+public class Camera {
+    public float x, y;
+    public float zoom = 1.0f;
+    public int viewWidth, viewHeight;
+
+    public Entity target;
+    public float deadZoneWidth, deadZoneHeight;
+
+    public boolean bounded = false;
+    public float boundsX, boundsY, boundsWidth, boundsHeight;
+
+    /**
+     * Round the camera translation to whole screen pixels.
+     */
+    public boolean pixelSnap = true;
+
+    private final AffineTransform transform = new AffineTransform();
+
+    /**
+     * Creates a new camera with the specified view size.
+     *
+     * @param viewWidth  width of the view, in screen pixels
+     * @param viewHeight height of the view, in screen pixels
+     */
+    public Camera(int viewWidth, int viewHeight) {
+        this.viewWidth = viewWidth;
+        this.viewHeight = viewHeight;
+    }
+
+    public Camera setViewSize(int viewWidth, int viewHeight) {
+        this.viewWidth = viewWidth;
+        this.viewHeight = viewHeight;
+        return this;
+    }
+
+    public Camera setZoom(float zoom) {
+        this.zoom = zoom;
+        return this;
+    }
+
+    /**
+     * Follow an entity, and move at once onto it.
+     *
+     * @param target         the entity to follow
+     * @param deadZoneWidth  width of the area, in world units, the target can
+     *                       move into without scrolling
+     * @param deadZoneHeight height of the dead zone, in world units
+     * @return the updated camera.
+     */
+    public Camera setTarget(Entity target, float deadZoneWidth, float deadZoneHeight) {
+        this.target = target;
+        this.deadZoneWidth = deadZoneWidth;
+        this.deadZoneHeight = deadZoneHeight;
+        if (target != null) {
+            x = target.x + target.width * 0.5f - getViewWidth() * 0.5f;
+            y = target.y + target.height * 0.5f - getViewHeight() * 0.5f;
+            clampToBounds();
+        }
+        return this;
+    }
+
+    /**
+     * Keep the view into an area of the world.
+     *
+     * @param x      left of the area
+     * @param y      top of the area
+     * @param width  width of the area
+     * @param height height of the area
+     * @return the updated camera.
+     */
+    public Camera setBounds(float x, float y, float width, float height) {
+        this.bounded = true;
+        this.boundsX = x;
+        this.boundsY = y;
+        this.boundsWidth = width;
+        this.boundsHeight = height;
+        clampToBounds();
+        return this;
+    }
+
+    /**
+     * Scroll to keep the target into the dead zone, then into the bounds.
+     */
+    public void update() {
+        if (target != null) {
+            float cx = target.x + target.width * 0.5f;
+            float cy = target.y + target.height * 0.5f;
+            float left = x + (getViewWidth() - deadZoneWidth) * 0.5f;
+            float top = y + (getViewHeight() - deadZoneHeight) * 0.5f;
+            if (cx < left) {
+                x -= left - cx;
+            } else if (cx > left + deadZoneWidth) {
+                x += cx - (left + deadZoneWidth);
+            }
+            if (cy < top) {
+                y -= top - cy;
+            } else if (cy > top + deadZoneHeight) {
+                y += cy - (top + deadZoneHeight);
+            }
+        }
+        clampToBounds();
+    }
+
+    /**
+     * Retrieve the world to screen transform of the camera.
+     *
+     * @return the transform, reused between calls.
+     */
+    public AffineTransform getTransform() {
+        double tx = -x * zoom, ty = -y * zoom;
+        if (pixelSnap) {
+            tx = Math.round(tx);
+            ty = Math.round(ty);
+        }
+        transform.setTransform(zoom, 0, 0, zoom, tx, ty);
+        return transform;
+    }
+
+    /**
+     * Retrieve the visible world width.
+     *
+     * @return the width, in world units.
+     */
+    public float getViewWidth() {
+        return viewWidth / zoom;
+    }
+
+    /**
+     * Retrieve the visible world height.
+     *
+     * @return the height, in world units.
+     */
+    public float getViewHeight() {
+        return viewHeight / zoom;
+    }
+
+    /**
+     * Check if at least a part of an entity is into the view.
+     *
+     * @param e the entity to check
+     * @return true if the entity is visible.
+     */
+    public boolean isVisible(Entity e) {
+        return e.x <= x + getViewWidth() && e.x + e.width + 1 >= x
+                && e.y <= y + getViewHeight() && e.y + e.height + 1 >= y;
+    }
+
+    public float toWorldX(int screenX) {
+        return x + screenX / zoom;
+    }
+
+    public float toWorldY(int screenY) {
+        return y + screenY / zoom;
+    }
+
+    private void clampToBounds() {
+        if (!bounded) {
+            return;
+        }
+        float vw = getViewWidth(), vh = getViewHeight();
+        x = vw >= boundsWidth
+                ? boundsX + (boundsWidth - vw) * 0.5f
+                : Math.max(boundsX, Math.min(x, boundsX + boundsWidth - vw));
+        y = vh >= boundsHeight
+                ? boundsY + (boundsHeight - vh) * 0.5f
+                : Math.max(boundsY, Math.min(y, boundsY + boundsHeight - vh));
+    }
+}
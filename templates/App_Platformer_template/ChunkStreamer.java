@@ -0,0 +1,437 @@
+package ${PROJECT_PACKAGE_NAME};
+
+import java.awt.Color;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Properties;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stream the chunks of a {@link TileMap} from and to disk around a focus
+ * point.
+ * <p>
+ * Each chunk is stored into its own file with its tiles and the plain entities
+ * (entities without any behavior) lying in it. Chunks closer than
+ * {@link #loadRadius} chunks from the focus point are read on a background
+ * thread and installed at the next {@link #update} call, while loaded chunks
+ * farther than {@link #unloadRadius} are written back and evicted with their
+ * entities. Keeping the unload radius greater than the load radius prevents a
+ * chunk from being loaded and evicted again and again when the focus moves
+ * around a chunk border.
+ * <p>
+ * A level built in memory is written once by {@link #export}; afterward the
+ * tile map is created empty and only the chunks around the focus are read.
+ * Chunk files are looked for on the background thread when a chunk is needed,
+ * and entities with behaviors lying into a chunk not in memory are frozen until
+ * it is loaded, so they do not fall through its missing tiles.
+ */
+public class ChunkStreamer {
+    private static final int FILE_VERSION = 1;
+    private static final String LEVEL_FILE = "level.properties";
+
+    /**
+     * State of a chunk file, checked on first use.
+     */
+    private static final byte FILE_UNKNOWN = 0, FILE_MISSING = 1, FILE_STORED = 2;
+
+    /**
+     * Entity data stored with a chunk.
+     */
+    private static class EntityData {
+        String name;
+        float x, y;
+        int width, height;
+        int color, fillColor;
+    }
+
+    /**
+     * Chunk data read on the background thread, waiting to be installed.
+     */
+    private static class ChunkData {
+        int index;
+        TileChunk chunk;
+        List<EntityData> entities = new ArrayList<>();
+        boolean missing = false;
+    }
+
+    public int loadRadius = 2;
+    public int unloadRadius = 3;
+
+    private final TileMap map;
+    private final List<Entity> entities;
+    private final Path directory;
+
+    private final byte[] fileState;
+    private final boolean[] storedWithEntities;
+    private final boolean[] pending;
+    private final boolean[] resident;
+    private final int[] savedVersion;
+    private final int[] residents;
+    private int residentCount = 0;
+
+    private final Queue<ChunkData> loaded = new ConcurrentLinkedQueue<>();
+    private final ExecutorService io = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "chunk-streamer");
+        t.setDaemon(true);
+        return t;
+    });
+
+    /**
+     * Creates a new streamer.
+     *
+     * @param map       the tile map to be streamed
+     * @param entities  the list of entities the streamed entities are added to
+     *                  and removed from
+     * @param directory the directory where chunk files are stored.
+     */
+    public ChunkStreamer(TileMap map, List<Entity> entities, Path directory) {
+        this.map = map;
+        this.entities = entities;
+        this.directory = directory;
+        int count = map.chunksX * map.chunksY;
+        this.fileState = new byte[count];
+        this.storedWithEntities = new boolean[count];
+        this.pending = new boolean[count];
+        this.resident = new boolean[count];
+        this.savedVersion = new int[count];
+        this.residents = new int[count];
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            Platformer.error(ChunkStreamer.class, "Unable to create chunk directory %s: %s", directory, e.getMessage());
+        }
+        for (int i = 0; i < count; i++) {
+            if (map.getChunk(i % map.chunksX, i / map.chunksX) != null) {
+                addResident(i);
+            }
+        }
+    }
+
+    /**
+     * Check if a level has already been exported into a directory, with the
+     * dimensions of a tile map.
+     *
+     * @param directory the directory where chunk files are stored
+     * @param map       the tile map the level is streamed into
+     * @return true if the chunk files of the level can be streamed.
+     */
+    public static boolean isExported(Path directory, TileMap map) {
+        Path file = directory.resolve(LEVEL_FILE);
+        if (!Files.exists(file)) {
+            return false;
+        }
+        Properties level = new Properties();
+        try (InputStream in = Files.newInputStream(file)) {
+            level.load(in);
+        } catch (IOException e) {
+            Platformer.error(ChunkStreamer.class, "Unable to read level file %s: %s", file, e.getMessage());
+            return false;
+        }
+        return ("%d,%d,%d".formatted(map.cols, map.rows, map.tileSize)).equals(level.getProperty("level.size"));
+    }
+
+    /**
+     * Write every chunk of a level built in memory to disk and evict them, with
+     * their plain entities, then mark the level as exported. Used once, the
+     * next runs only reading the chunks around the focus.
+     */
+    public void export() {
+        for (int cy = 0; cy < map.chunksY; cy++) {
+            for (int cx = 0; cx < map.chunksX; cx++) {
+                int index = cy * map.chunksX + cx;
+                evict(cx, cy, true);
+                if (fileState[index] != FILE_STORED) {
+                    fileState[index] = FILE_MISSING;
+                }
+            }
+        }
+        // written after the chunks, on the same thread.
+        io.submit(() -> {
+            Properties level = new Properties();
+            level.setProperty("level.size", "%d,%d,%d".formatted(map.cols, map.rows, map.tileSize));
+            try (OutputStream out = Files.newOutputStream(directory.resolve(LEVEL_FILE))) {
+                level.store(out, "exported level");
+            } catch (IOException e) {
+                Platformer.error(ChunkStreamer.class, "Unable to write level file: %s", e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Wait for the requested chunks to be read, and install them.
+     */
+    public void awaitLoaded() {
+        try {
+            io.submit(() -> {
+            }).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            Platformer.error(ChunkStreamer.class, "Unable to wait for chunks: %s", e.getMessage());
+        }
+        ChunkData data;
+        while ((data = loaded.poll()) != null) {
+            install(data);
+        }
+    }
+
+    /**
+     * Install the chunks loaded since the last call, request the loading of the
+     * chunks around the focus point and evict the distant ones.
+     *
+     * @param focusX the focus x coordinate, in pixels
+     * @param focusY the focus y coordinate, in pixels
+     */
+    public void update(float focusX, float focusY) {
+        ChunkData data;
+        while ((data = loaded.poll()) != null) {
+            install(data);
+        }
+        int fcx = map.toTileX(focusX) >> TileChunk.BITS;
+        int fcy = map.toTileY(focusY) >> TileChunk.BITS;
+        for (int cy = Math.max(0, fcy - loadRadius); cy <= Math.min(map.chunksY - 1, fcy + loadRadius); cy++) {
+            for (int cx = Math.max(0, fcx - loadRadius); cx <= Math.min(map.chunksX - 1, fcx + loadRadius); cx++) {
+                int index = cy * map.chunksX + cx;
+                if (!pending[index] && !resident[index] && fileState[index] != FILE_MISSING) {
+                    requestLoad(cx, cy);
+                }
+            }
+        }
+        for (int i = residentCount - 1; i >= 0; i--) {
+            int index = residents[i];
+            int cx = index % map.chunksX, cy = index / map.chunksX;
+            if (Math.max(Math.abs(cx - fcx), Math.abs(cy - fcy)) > unloadRadius) {
+                evict(cx, cy, false);
+            }
+        }
+        for (Entity e : entities) {
+            if (!e.behaviors.isEmpty() && !(e instanceof World)) {
+                int index = chunkIndexOf(e);
+                e.frozen = index >= 0 && !resident[index] && fileState[index] != FILE_MISSING;
+            }
+        }
+    }
+
+    /**
+     * Retrieve the number of chunks currently in memory.
+     *
+     * @return the number of resident chunks.
+     */
+    public int getResidentCount() {
+        return residentCount;
+    }
+
+    /**
+     * Write the modified loaded chunks back to disk and stop the background
+     * thread.
+     */
+    public void dispose() {
+        for (int i = residentCount - 1; i >= 0; i--) {
+            evict(residents[i] % map.chunksX, residents[i] / map.chunksX, false);
+        }
+        io.shutdown();
+        try {
+            io.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void requestLoad(int cx, int cy) {
+        int index = cy * map.chunksX + cx;
+        pending[index] = true;
+        io.submit(() -> {
+            ChunkData data = new ChunkData();
+            data.index = index;
+            if (!Files.exists(chunkFile(cx, cy))) {
+                data.missing = true;
+                loaded.add(data);
+                return;
+            }
+            try (DataInputStream in = new DataInputStream(
+                    new BufferedInputStream(Files.newInputStream(chunkFile(cx, cy))))) {
+                if (in.readInt() != FILE_VERSION) {
+                    throw new IOException("unsupported chunk file version");
+                }
+                data.chunk = new TileChunk(cx, cy);
+                for (int i = 0; i < data.chunk.tiles.length; i++) {
+                    data.chunk.tiles[i] = in.readShort();
+                }
+                int count = in.readInt();
+                for (int i = 0; i < count; i++) {
+                    EntityData ed = new EntityData();
+                    ed.name = in.readUTF();
+                    ed.x = in.readFloat();
+                    ed.y = in.readFloat();
+                    ed.width = in.readInt();
+                    ed.height = in.readInt();
+                    ed.color = in.readInt();
+                    ed.fillColor = in.readInt();
+                    data.entities.add(ed);
+                }
+            } catch (IOException e) {
+                Platformer.error(ChunkStreamer.class, "Unable to load chunk %d,%d: %s", cx, cy, e.getMessage());
+                data.chunk = null;
+                data.entities.clear();
+            }
+            loaded.add(data);
+        });
+    }
+
+    private void install(ChunkData data) {
+        pending[data.index] = false;
+        if (data.missing) {
+            fileState[data.index] = FILE_MISSING;
+            return;
+        }
+        if (data.chunk == null) {
+            // do not retry a broken chunk file.
+            fileState[data.index] = FILE_MISSING;
+            return;
+        }
+        map.setChunk(data.chunk.cx, data.chunk.cy, data.chunk);
+        fileState[data.index] = FILE_STORED;
+        savedVersion[data.index] = data.chunk.version;
+        storedWithEntities[data.index] = !data.entities.isEmpty();
+        addResident(data.index);
+        for (EntityData ed : data.entities) {
+            Entity e = new Entity(ed.name, 0, 0, ed.width, ed.height)
+                    .setColor(new Color(ed.color, true))
+                    .setFillColor(new Color(ed.fillColor, true));
+            e.x = ed.x;
+            e.y = ed.y;
+            entities.add(e);
+        }
+    }
+
+    /**
+     * Remove a chunk and its plain entities from memory, writing them to disk
+     * when they changed since they were loaded, or always when forced.
+     */
+    private void evict(int cx, int cy, boolean force) {
+        int index = cy * map.chunksX + cx;
+        TileChunk chunk = map.getChunk(cx, cy);
+        List<EntityData> evicted = removeEntities(cx, cy);
+        map.setChunk(cx, cy, null);
+        removeResident(index);
+        if (chunk == null && evicted.isEmpty() && fileState[index] != FILE_STORED) {
+            return;
+        }
+        boolean unchanged = fileState[index] == FILE_STORED && !storedWithEntities[index] && evicted.isEmpty()
+                && (chunk == null || chunk.version == savedVersion[index]);
+        if (!force && unchanged) {
+            return;
+        }
+        short[] tiles = chunk != null ? chunk.tiles.clone() : new short[TileChunk.SIZE * TileChunk.SIZE];
+        fileState[index] = FILE_STORED;
+        storedWithEntities[index] = !evicted.isEmpty();
+        io.submit(() -> {
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(chunkFile(cx, cy))))) {
+                out.writeInt(FILE_VERSION);
+                for (short tile : tiles) {
+                    out.writeShort(tile);
+                }
+                out.writeInt(evicted.size());
+                for (EntityData ed : evicted) {
+                    out.writeUTF(ed.name);
+                    out.writeFloat(ed.x);
+                    out.writeFloat(ed.y);
+                    out.writeInt(ed.width);
+                    out.writeInt(ed.height);
+                    out.writeInt(ed.color);
+                    out.writeInt(ed.fillColor);
+                }
+            } catch (IOException e) {
+                Platformer.error(ChunkStreamer.class, "Unable to save chunk %d,%d: %s", cx, cy, e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Retrieve the index of the chunk holding the center of an entity.
+     *
+     * @return the chunk index, -1 when out of the map.
+     */
+    private int chunkIndexOf(Entity e) {
+        int tx = map.toTileX(e.x + e.width * 0.5f), ty = map.toTileY(e.y + e.height * 0.5f);
+        if (tx < 0 || ty < 0 || tx >= map.cols || ty >= map.rows) {
+            return -1;
+        }
+        return (ty >> TileChunk.BITS) * map.chunksX + (tx >> TileChunk.BITS);
+    }
+
+    /**
+     * Check if an entity is a plain one whose center lies into a chunk.
+     */
+    private boolean isPlainEntityIn(Entity e, int cx, int cy) {
+        float left = map.x + (cx << TileChunk.BITS) * map.tileSize;
+        float top = map.y + (cy << TileChunk.BITS) * map.tileSize;
+        float size = TileChunk.SIZE * map.tileSize;
+        float ex = e.x + e.width * 0.5f, ey = e.y + e.height * 0.5f;
+        return e.behaviors.isEmpty() && !(e instanceof World)
+                && ex >= left && ex < left + size && ey >= top && ey < top + size;
+    }
+
+    /**
+     * Remove from the entity list the plain entities whose center lies into a
+     * chunk.
+     */
+    private List<EntityData> removeEntities(int cx, int cy) {
+        List<EntityData> evicted = new ArrayList<>();
+        for (Iterator<Entity> it = entities.iterator(); it.hasNext();) {
+            Entity e = it.next();
+            if (isPlainEntityIn(e, cx, cy)) {
+                EntityData ed = new EntityData();
+                ed.name = e.name;
+                ed.x = e.x;
+                ed.y = e.y;
+                ed.width = e.width;
+                ed.height = e.height;
+                ed.color = e.color != null ? e.color.getRGB() : 0;
+                ed.fillColor = e.fillColor != null ? e.fillColor.getRGB() : 0;
+                evicted.add(ed);
+                it.remove();
+            }
+        }
+        return evicted;
+    }
+
+    private void addResident(int index) {
+        if (!resident[index]) {
+            resident[index] = true;
+            residents[residentCount++] = index;
+        }
+    }
+
+    private void removeResident(int index) {
+        if (resident[index]) {
+            resident[index] = false;
+            for (int i = 0; i < residentCount; i++) {
+                if (residents[i] == index) {
+                    residents[i] = residents[--residentCount];
+                    break;
+                }
+            }
+        }
+    }
+
+    private Path chunkFile(int cx, int cy) {
+        return directory.resolve("chunk_%d_%d.bin".formatted(cx, cy));
+    }
+}
@@ -25,6 +25,40 @@ public class Entity {
     public Color fillColor;
 
     public BufferedImage sprite;
+    /**
+     * The sprite region into a texture atlas, drawn through a sprite batch.
+     */
+    public AtlasRegion region;
+
+    /**
+     * Can this entity be put to sleep when it comes to rest ?
+     */
+    public boolean sleepable = true;
+    /**
+     * A sleeping entity is neither moved nor clamped until it is woken up; only
+     * its behaviors are run, and can wake it up.
+     */
+    public boolean sleeping = false;
+    /**
+     * Number of consecutive frames the entity has stayed under the sleep velocity
+     * threshold.
+     */
+    public int restFrames = 0;
+    /**
+     * A frozen entity lies into a streamed out part of the world: it is not
+     * updated until this part is loaded back.
+     */
+    public boolean frozen = false;
+    /**
+     * Marker used by the {@link SpatialGrid} to report an entity only once per
+     * query.
+     */
+    public int queryStamp = 0;
+    /**
+     * Slot of the entity into the {@link AnimationSystem} playing its clip, -1
+     * when not animated.
+     */
+    public int animator = -1;
 
     public List<Behavior<Entity>> behaviors = new LinkedList<>();
 
@@ -84,29 +118,87 @@ public class Entity {
     }
 
     /**
-     * Update the entity's position based on its velocity.
+     * Test if 2 entities are in contact, meaning overlapping or touching edges.
+     *
+     * @param other the other entity to test against.
+     * @return true if the entities are touching, false otherwise.
+     */
+    public boolean touches(Entity other) {
+        return this.x <= other.x + other.width && this.x + this.width >= other.x &&
+                this.y <= other.y + other.height && this.y + this.height >= other.y;
+    }
+
+    /**
+     * Draw the entity, submitting its atlas sprite, if any, to the sprite batch
+     * instead of drawing it right now. The batch is flushed before any direct
+     * drawing, so that the entities keep their drawing order.
+     *
+     * @param g     the Graphics2D context to draw on.
+     * @param batch the sprite batch collecting the atlas sprites.
+     */
+    public void draw(Graphics2D g, SpriteBatch batch) {
+        if (region != null && region.isPacked()) {
+            batch.draw(region, (int) x, (int) y, width, height);
+            return;
+        }
+        batch.flush(g);
+        if (region != null) {
+            batch.images.draw(g, region.source, (int) x, (int) y, width, height);
+        } else if (sprite != null) {
+            batch.images.draw(g, sprite, (int) x, (int) y, width, height);
+        } else {
+            draw(g);
+        }
+    }
+
+    /**
+     * Apply the behaviors, then update the entity's position based on its
+     * velocity. The behaviors of a sleeping entity keep running, and wake it up
+     * as soon as they change its velocity.
      */
     public void update() {
+        float vx = dx, vy = dy;
         for (Behavior<Entity> b : behaviors) {
             b.apply(this);
         }
+        if (sleeping) {
+            if (dx == vx && dy == vy) {
+                return;
+            }
+            wake();
+        }
         x += dx;
         y += dy;
     }
 
     /**
      * Set the sprite for the entity and update its width and height accordingly.
+     * The sprite is converted to the screen layout if needed.
      * 
      * @param sprite the BufferedImage sprite to set.
      * @return the updated entity.
      */
     public Entity setSprite(BufferedImage sprite) {
-        this.sprite = sprite;
+        this.sprite = ImageCache.toCompatible(sprite);
         this.width = sprite.getWidth();
         this.height = sprite.getHeight();
         return this;
     }
 
+    /**
+     * Set the atlas sprite region for the entity and update its width and height
+     * accordingly.
+     *
+     * @param region the atlas region to set.
+     * @return the updated entity.
+     */
+    public Entity setSprite(AtlasRegion region) {
+        this.region = region;
+        this.width = region.width;
+        this.height = region.height;
+        return this;
+    }
+
     /**
      * Set the velocity of the entity.
      * 
@@ -117,6 +209,52 @@ public class Entity {
     public Entity setVelocity(int dx, int dy) {
         this.dx = dx;
         this.dy = dy;
+        wake();
+        return this;
+    }
+
+    /**
+     * Apply a force to the entity, waking it up if it was sleeping.
+     *
+     * @param fx the force on the x axis
+     * @param fy the force on the y axis
+     * @return the updated entity
+     */
+    public Entity applyForce(float fx, float fy) {
+        this.dx += fx;
+        this.dy += fy;
+        wake();
+        return this;
+    }
+
+    /**
+     * Wake the entity up, so it is updated and collided again.
+     */
+    public void wake() {
+        this.sleeping = false;
+        this.restFrames = 0;
+    }
+
+    /**
+     * Put the entity to sleep and stop it.
+     */
+    public void sleep() {
+        this.sleeping = true;
+        this.dx = 0;
+        this.dy = 0;
+    }
+
+    /**
+     * Define if the entity can be put to sleep when resting.
+     *
+     * @param sleepable true to allow sleeping.
+     * @return the updated entity
+     */
+    public Entity setSleepable(boolean sleepable) {
+        this.sleepable = sleepable;
+        if (!sleepable) {
+            wake();
+        }
         return this;
     }
 
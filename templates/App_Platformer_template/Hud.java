@@ -0,0 +1,90 @@
+package ${PROJECT_PACKAGE_NAME};
+
+import java.awt.Graphics2D;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A retained-mode head-up display: a set of {@link HudWidget}s placed against
+ * the screen borders.
+ * <p>
+ * Each widget keeps its rendered image, and is only rendered again when its
+ * bound value changes. Widget positions are computed when the screen size
+ * differs from the one a widget was placed for, or when a widget size changes. A frame then costs a value check and
+ * an image draw per widget, whatever the widgets content.
+ */
+public class Hud {
+
+    /**
+     * Where a widget is placed on the screen, its offset being applied from
+     * this point.
+     */
+    public enum Anchor {
+        TOP_LEFT, TOP, TOP_RIGHT,
+        LEFT, CENTER, RIGHT,
+        BOTTOM_LEFT, BOTTOM, BOTTOM_RIGHT
+    }
+
+    public final List<HudWidget> widgets = new ArrayList<>();
+    /**
+     * Number of widgets rendered again by the last draw.
+     */
+    public int renders = 0;
+
+    public Hud add(HudWidget widget) {
+        widgets.add(widget);
+        return this;
+    }
+
+    /**
+     * Retrieve a widget by its name.
+     *
+     * @param name the widget name
+     * @return the widget, or null if not found.
+     */
+    public HudWidget get(String name) {
+        for (HudWidget w : widgets) {
+            if (w.name.equals(name)) {
+                return w;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Draw the widgets, rendering again the changed ones.
+     *
+     * @param g      the Graphics2D context to draw on, in screen coordinates
+     * @param width  screen width
+     * @param height screen height
+     */
+    public void draw(Graphics2D g, int width, int height) {
+        renders = 0;
+        for (HudWidget w : widgets) {
+            if (!w.visible) {
+                continue;
+            }
+            w.update();
+            // a widget hidden during a resize is placed again when shown.
+            boolean moved = width != w.layoutWidth || height != w.layoutHeight;
+            if (w.isDirty()) {
+                moved |= w.render();
+                renders++;
+            }
+            if (moved) {
+                layout(w, width, height);
+            }
+            g.drawImage(w.getImage(), w.screenX, w.screenY, null);
+        }
+    }
+
+    private void layout(HudWidget w, int width, int height) {
+        // anchors are ordered row by row, 3 per row.
+        int column = w.anchor.ordinal() % 3, row = w.anchor.ordinal() / 3;
+        int iw = w.getImage().getWidth(), ih = w.getImage().getHeight();
+        w.screenX = w.offsetX + (column == 0 ? 0 : column == 1 ? (width - iw) / 2 : width - iw);
+        w.screenY = w.offsetY + (row == 0 ? 0 : row == 1 ? (height - ih) / 2 : height - ih);
+        w.layoutWidth = width;
+        w.layoutHeight = height;
+    }
+}
@@ -0,0 +1,293 @@
+package ${PROJECT_PACKAGE_NAME};
+
+import java.awt.AlphaComposite;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.util.function.IntSupplier;
+
+/**
+ * A {@link Hud} element, drawn from a cached image rendered again only when
+ * the widget changes.
+ */
+public abstract class HudWidget {
+    private static final Graphics2D MEASURE = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB).createGraphics();
+
+    public final String name;
+    public Hud.Anchor anchor = Hud.Anchor.TOP_LEFT;
+    public int offsetX, offsetY;
+    /**
+     * Screen position of the widget, computed by the HUD layout.
+     */
+    public int screenX, screenY;
+    /**
+     * Screen size the position was computed for, -1 when not placed yet.
+     */
+    int layoutWidth = -1, layoutHeight = -1;
+    public boolean visible = true;
+    /**
+     * Number of times the widget image has been rendered.
+     */
+    public int renderCount = 0;
+
+    private BufferedImage image;
+    private boolean dirty = true;
+
+    protected HudWidget(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Place the widget against the screen borders.
+     *
+     * @param anchor  the point of the screen the widget is placed from
+     * @param offsetX x offset from the anchor
+     * @param offsetY y offset from the anchor
+     * @return the updated widget.
+     */
+    public HudWidget setPosition(Hud.Anchor anchor, int offsetX, int offsetY) {
+        this.anchor = anchor;
+        this.offsetX = offsetX;
+        this.offsetY = offsetY;
+        layoutWidth = -1;
+        return this;
+    }
+
+    public HudWidget setVisible(boolean visible) {
+        this.visible = visible;
+        return this;
+    }
+
+    /**
+     * Request the widget image to be rendered again.
+     */
+    public void invalidate() {
+        dirty = true;
+    }
+
+    public boolean isDirty() {
+        return dirty;
+    }
+
+    public BufferedImage getImage() {
+        return image;
+    }
+
+    /**
+     * Check the bound value of the widget, and invalidate it if it changed.
+     */
+    public void update() {
+    }
+
+    /**
+     * Render the widget into its image.
+     *
+     * @return true if the image size changed.
+     */
+    public boolean render() {
+        int w = Math.max(1, getWidth()), h = Math.max(1, getHeight());
+        boolean resized = image == null || image.getWidth() != w || image.getHeight() != h;
+        if (resized) {
+            image = ImageCache.createCompatible(w, h, Transparency.TRANSLUCENT);
+        }
+        Graphics2D g = image.createGraphics();
+        if (!resized) {
+            g.setComposite(AlphaComposite.Clear);
+            g.fillRect(0, 0, w, h);
+            g.setComposite(AlphaComposite.SrcOver);
+        }
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        paint(g);
+        g.dispose();
+        dirty = false;
+        renderCount++;
+        return resized;
+    }
+
+    protected abstract int getWidth();
+
+    protected abstract int getHeight();
+
+    /**
+     * Paint the widget into its image.
+     *
+     * @param g the Graphics2D context of the widget image.
+     */
+    protected abstract void paint(Graphics2D g);
+
+    protected static FontMetrics getMetrics(Font font) {
+        return MEASURE.getFontMetrics(font);
+    }
+
+    /**
+     * A static text.
+     */
+    public static class Label extends HudWidget {
+        protected String text;
+        protected Font font;
+        protected Color color = Color.WHITE;
+
+        public Label(String name, String text, float fontSize) {
+            super(name);
+            this.text = text;
+            this.font = MEASURE.getFont().deriveFont(Font.BOLD, fontSize);
+        }
+
+        public Label setText(String text) {
+            if (!text.equals(this.text)) {
+                this.text = text;
+                invalidate();
+            }
+            return this;
+        }
+
+        public Label setColor(Color color) {
+            this.color = color;
+            invalidate();
+            return this;
+        }
+
+        protected int getWidth() {
+            return getMetrics(font).stringWidth(text);
+        }
+
+        protected int getHeight() {
+            return getMetrics(font).getHeight();
+        }
+
+        protected void paint(Graphics2D g) {
+            g.setFont(font);
+            g.setColor(color);
+            g.drawString(text, 0, getMetrics(font).getAscent());
+        }
+    }
+
+    /**
+     * An integer value, padded with zeros to a number of digits.
+     */
+    public static class Counter extends Label {
+        private final IntSupplier value;
+        private final String format;
+        private int last;
+
+        /**
+         * Creates a new counter.
+         *
+         * @param name     the widget name
+         * @param value    the bound value
+         * @param digits   the minimum number of digits
+         * @param fontSize the font size.
+         */
+        public Counter(String name, IntSupplier value, int digits, float fontSize) {
+            super(name, "", fontSize);
+            this.value = value;
+            this.format = "%0" + digits + "d";
+            this.last = value.getAsInt();
+            this.text = format.formatted(last);
+        }
+
+        public void update() {
+            int v = value.getAsInt();
+            if (v != last) {
+                last = v;
+                setText(format.formatted(v));
+            }
+        }
+    }
+
+    /**
+     * A gauge filled in proportion of a value to its maximum.
+     */
+    public static class Bar extends HudWidget {
+        private final IntSupplier value;
+        private final int max, width, height;
+        private Color fillColor = Color.GREEN, backColor = Color.DARK_GRAY, borderColor = Color.WHITE;
+        private int last;
+
+        public Bar(String name, IntSupplier value, int max, int width, int height) {
+            super(name);
+            this.value = value;
+            this.max = Math.max(1, max);
+            this.width = width;
+            this.height = height;
+            this.last = value.getAsInt();
+        }
+
+        public Bar setColors(Color fill, Color back, Color border) {
+            this.fillColor = fill;
+            this.backColor = back;
+            this.borderColor = border;
+            invalidate();
+            return this;
+        }
+
+        public void update() {
+            int v = value.getAsInt();
+            if (v != last) {
+                last = v;
+                invalidate();
+            }
+        }
+
+        protected int getWidth() {
+            return width + 1;
+        }
+
+        protected int getHeight() {
+            return height + 1;
+        }
+
+        protected void paint(Graphics2D g) {
+            g.setColor(backColor);
+            g.fillRect(0, 0, width, height);
+            g.setColor(fillColor);
+            g.fillRect(0, 0, width * Math.max(0, Math.min(max, last)) / max, height);
+            g.setColor(borderColor);
+            g.drawRect(0, 0, width, height);
+        }
+    }
+
+    /**
+     * An image repeated a bound number of times, e.g. one heart per life.
+     */
+    public static class Icon extends HudWidget {
+        private final BufferedImage icon;
+        private final IntSupplier count;
+        public int spacing = 2;
+        private int last;
+
+        public Icon(String name, BufferedImage icon, IntSupplier count) {
+            super(name);
+            this.icon = icon;
+            this.count = count;
+            this.last = Math.max(0, count.getAsInt());
+        }
+
+        public void update() {
+            int c = Math.max(0, count.getAsInt());
+            if (c != last) {
+                last = c;
+                invalidate();
+            }
+        }
+
+        protected int getWidth() {
+            return last * (icon.getWidth() + spacing);
+        }
+
+        protected int getHeight() {
+            return icon.getHeight();
+        }
+
+        protected void paint(Graphics2D g) {
+            for (int i = 0; i < last; i++) {
+                g.drawImage(icon, i * (icon.getWidth() + spacing), 0, null);
+            }
+        }
+    }
+}
@@ -0,0 +1,273 @@
+package ${PROJECT_PACKAGE_NAME};
+
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.GraphicsEnvironment;
+import java.awt.Image;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.awt.image.VolatileImage;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Keep images in the layout of the screen, and promote the most drawn ones to
+ * video memory.
+ * <p>
+ * An image whose color model differs from the screen one is converted by
+ * software on every draw. {@link #toCompatible(BufferedImage)} copies it once
+ * into an image created by the screen {@link GraphicsConfiguration}. Images
+ * drawn through {@link #draw} more than {@link #promoteThreshold} times are
+ * also copied into a {@link VolatileImage}, which is validated before each draw
+ * and restored when its content has been lost (e.g. display mode change or
+ * screen lock). Acceleration hits and misses are counted at each draw.
+ * <p>
+ * An image drawn into after its promotion must be {@link #invalidate}d, so that
+ * its copy is refreshed at the next draw. Images not drawn for
+ * {@link #maxIdleFrames} frames are forgotten by {@link #endFrame()}, with their
+ * copy.
+ */
+public class ImageCache {
+
+    /**
+     * Cache entry of a source image.
+     */
+    private static class Entry {
+        int draws = 0;
+        VolatileImage accelerated;
+        boolean dirty = false;
+        long lastFrame;
+    }
+
+    /**
+     * Number of draws before an image is promoted to a VolatileImage.
+     */
+    public int promoteThreshold = 60;
+    /**
+     * Maximum number of VolatileImage, to bound the video memory used.
+     */
+    public int maxAccelerated = 64;
+    /**
+     * Number of frames an image can stay undrawn before being forgotten.
+     */
+    public int maxIdleFrames = 300;
+
+    /**
+     * Draws from an accelerated image since the last counters reset.
+     */
+    public long hits = 0;
+    /**
+     * Draws from a non accelerated image since the last counters reset.
+     */
+    public long misses = 0;
+    /**
+     * Number of VolatileImage contents restored since the last counters reset.
+     */
+    public long restores = 0;
+
+    private final Map<BufferedImage, Entry> entries = new IdentityHashMap<>();
+    private int acceleratedCount = 0;
+    private long frame = 0;
+
+    /**
+     * Retrieve the default screen configuration.
+     *
+     * @return the graphics configuration, or null when running headless.
+     */
+    public static GraphicsConfiguration getScreenConfiguration() {
+        if (GraphicsEnvironment.isHeadless()) {
+            return null;
+        }
+        return GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice().getDefaultConfiguration();
+    }
+
+    /**
+     * Create an image with the screen layout.
+     *
+     * @param width        image width
+     * @param height       image height
+     * @param transparency one of the {@link Transparency} constants
+     * @return the new image.
+     */
+    public static BufferedImage createCompatible(int width, int height, int transparency) {
+        GraphicsConfiguration gc = getScreenConfiguration();
+        if (gc == null) {
+            return new BufferedImage(width, height,
+                    transparency == Transparency.OPAQUE ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB);
+        }
+        return gc.createCompatibleImage(width, height, transparency);
+    }
+
+    /**
+     * Convert an image to the screen layout, if not already.
+     *
+     * @param img the image to convert
+     * @return the compatible image, or the same image if already compatible.
+     */
+    public static BufferedImage toCompatible(BufferedImage img) {
+        GraphicsConfiguration gc = getScreenConfiguration();
+        if (gc == null || img.getColorModel().equals(gc.getColorModel(img.getTransparency()))) {
+            return img;
+        }
+        BufferedImage compatible = gc.createCompatibleImage(img.getWidth(), img.getHeight(), img.getTransparency());
+        Graphics2D g = compatible.createGraphics();
+        g.setComposite(AlphaComposite.Src);
+        g.drawImage(img, 0, 0, null);
+        g.dispose();
+        return compatible;
+    }
+
+    /**
+     * Draw an image scaled into a destination area.
+     *
+     * @param g      the Graphics2D context to draw on.
+     * @param img    the image to draw
+     * @param x      destination x
+     * @param y      destination y
+     * @param width  destination width
+     * @param height destination height
+     */
+    public void draw(Graphics2D g, BufferedImage img, int x, int y, int width, int height) {
+        draw(g, img, x, y, x + width, y + height, 0, 0, img.getWidth(), img.getHeight());
+    }
+
+    /**
+     * Draw an area of an image scaled into a destination area, from its
+     * VolatileImage copy when promoted.
+     *
+     * @param g   the Graphics2D context to draw on.
+     * @param img the image to draw
+     * @param dx1 destination left
+     * @param dy1 destination top
+     * @param dx2 destination right
+     * @param dy2 destination bottom
+     * @param sx1 source left
+     * @param sy1 source top
+     * @param sx2 source right
+     * @param sy2 source bottom
+     */
+    public void draw(Graphics2D g, BufferedImage img,
+            int dx1, int dy1, int dx2, int dy2,
+            int sx1, int sy1, int sx2, int sy2) {
+        GraphicsConfiguration gc = g.getDeviceConfiguration();
+        Entry entry = entries.get(img);
+        if (entry == null) {
+            entry = new Entry();
+            entries.put(img, entry);
+        }
+        entry.lastFrame = frame;
+        if (entry.accelerated == null && ++entry.draws >= promoteThreshold && acceleratedCount < maxAccelerated) {
+            entry.accelerated = createAccelerated(gc, img);
+        }
+        VolatileImage vi = entry.accelerated;
+        if (vi == null) {
+            count(img, gc);
+            g.drawImage(img, dx1, dy1, dx2, dy2, sx1, sy1, sx2, sy2, null);
+            return;
+        }
+        do {
+            int status = vi.validate(gc);
+            if (status == VolatileImage.IMAGE_INCOMPATIBLE) {
+                vi.flush();
+                vi = entry.accelerated = gc.createCompatibleVolatileImage(
+                        img.getWidth(), img.getHeight(), img.getTransparency());
+                status = VolatileImage.IMAGE_RESTORED;
+            }
+            if (status == VolatileImage.IMAGE_RESTORED) {
+                copy(img, vi);
+                restores++;
+            } else if (entry.dirty) {
+                copy(img, vi);
+            }
+            entry.dirty = false;
+            count(vi, gc);
+            g.drawImage(vi, dx1, dy1, dx2, dy2, sx1, sy1, sx2, sy2, null);
+        } while (vi.contentsLost());
+    }
+
+    /**
+     * Request the copy of an image to be refreshed at its next draw, after the
+     * image has been drawn into.
+     *
+     * @param img the changed image.
+     */
+    public void invalidate(BufferedImage img) {
+        Entry entry = entries.get(img);
+        if (entry != null) {
+            entry.dirty = true;
+        }
+    }
+
+    /**
+     * End a frame, forgetting the images not drawn for {@link #maxIdleFrames}
+     * frames and releasing their copy.
+     */
+    public void endFrame() {
+        frame++;
+        // checked once per second at 60 frames per second.
+        if (frame % 60 != 0) {
+            return;
+        }
+        for (Iterator<Entry> it = entries.values().iterator(); it.hasNext();) {
+            Entry entry = it.next();
+            if (frame - entry.lastFrame > maxIdleFrames) {
+                if (entry.accelerated != null) {
+                    entry.accelerated.flush();
+                    acceleratedCount--;
+                }
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * Release all the VolatileImage copies.
+     */
+    public void flush() {
+        for (Entry entry : entries.values()) {
+            if (entry.accelerated != null) {
+                entry.accelerated.flush();
+                entry.accelerated = null;
+            }
+            entry.draws = 0;
+        }
+        acceleratedCount = 0;
+    }
+
+    /**
+     * Reset the hits, misses and restores counters.
+     */
+    public void resetCounters() {
+        hits = 0;
+        misses = 0;
+        restores = 0;
+    }
+
+    private VolatileImage createAccelerated(GraphicsConfiguration gc, BufferedImage img) {
+        if (gc == null) {
+            return null;
+        }
+        VolatileImage vi = gc.createCompatibleVolatileImage(img.getWidth(), img.getHeight(), img.getTransparency());
+        vi.validate(gc);
+        copy(img, vi);
+        acceleratedCount++;
+        return vi;
+    }
+
+    private void count(Image img, GraphicsConfiguration gc) {
+        if (gc != null && img.getCapabilities(gc).isAccelerated()) {
+            hits++;
+        } else {
+            misses++;
+        }
+    }
+
+    private static void copy(BufferedImage src, VolatileImage dst) {
+        Graphics2D vg = dst.createGraphics();
+        vg.setComposite(AlphaComposite.Src);
+        vg.drawImage(src, 0, 0, null);
+        vg.dispose();
+    }
+}
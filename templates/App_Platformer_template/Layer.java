@@ -0,0 +1,268 @@
+package ${PROJECT_PACKAGE_NAME};
+
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * A drawing layer of the world.
+ * <p>
+ * A dynamic layer calls its painter at each draw. A static layer calls its
+ * painter once into a cached image covering its bounds, then only blits this
+ * image until it is invalidated, or its bounds change.
+ * <p>
+ * With a {@link #cellSize}, a static layer is rather cached into square cells,
+ * only for the part of its bounds around the view: memory stays bound to the
+ * view size whatever the layer size, and invalidating an area only renders the
+ * cells it touches again. The painter is then called with a clip set to the
+ * rendered cell.
+ */
+public class Layer {
+    /**
+     * A cached square part of the layer.
+     */
+    private static class Cell {
+        int cx, cy;
+        BufferedImage image;
+        boolean dirty = true;
+    }
+
+    public final String name;
+    public final boolean staticContent;
+    public int x, y, width, height;
+    /**
+     * Size of the cached cells, or 0 to cache the whole bounds into one image.
+     */
+    public int cellSize = 0;
+    /**
+     * Number of times the cached image, or a cell, has been rendered.
+     */
+    public int renderCount = 0;
+
+    private final Consumer<Graphics2D> painter;
+    private BufferedImage cache;
+    private boolean dirty = true;
+
+    private int viewX, viewY, viewWidth = -1, viewHeight = -1;
+    private final List<Cell> cells = new ArrayList<>();
+    private final Deque<BufferedImage> freeImages = new ArrayDeque<>();
+
+    /**
+     * Creates a new layer.
+     *
+     * @param name          the layer name
+     * @param staticContent true if the content only changes on invalidation.
+     * @param painter       the drawing of the layer content, in world
+     *                      coordinates.
+     */
+    public Layer(String name, boolean staticContent, Consumer<Graphics2D> painter) {
+        this.name = name;
+        this.staticContent = staticContent;
+        this.painter = painter;
+    }
+
+    /**
+     * Set the area covered by the layer cached image.
+     *
+     * @param x      left of the area
+     * @param y      top of the area
+     * @param width  width of the area
+     * @param height height of the area
+     * @return the updated layer
+     */
+    public Layer setBounds(int x, int y, int width, int height) {
+        if (x != this.x || y != this.y || width != this.width || height != this.height) {
+            this.x = x;
+            this.y = y;
+            this.width = width;
+            this.height = height;
+            dirty = true;
+            releaseCells();
+        }
+        return this;
+    }
+
+    /**
+     * Cache the layer into square cells instead of a single image.
+     *
+     * @param cellSize the cell size, or 0 to cache the whole bounds into one
+     *                 image
+     * @return the updated layer
+     */
+    public Layer setCellSize(int cellSize) {
+        if (cellSize != this.cellSize) {
+            this.cellSize = cellSize;
+            releaseCells();
+            freeImages.clear();
+            cache = null;
+        }
+        return this;
+    }
+
+    /**
+     * Set the area drawn by a cell cached layer, only the cells around it being
+     * kept in memory. The whole bounds are drawn while no view is set.
+     *
+     * @param x      left of the view
+     * @param y      top of the view
+     * @param width  width of the view
+     * @param height height of the view
+     * @return the updated layer
+     */
+    public Layer setView(int x, int y, int width, int height) {
+        this.viewX = x;
+        this.viewY = y;
+        this.viewWidth = width;
+        this.viewHeight = height;
+        return this;
+    }
+
+    /**
+     * Request the cached image to be rendered again at next draw.
+     */
+    public void invalidate() {
+        dirty = true;
+        for (Cell c : cells) {
+            c.dirty = true;
+        }
+    }
+
+    /**
+     * Request the cached cells touching an area to be rendered again at next
+     * draw. Without cells, the whole cached image is.
+     *
+     * @param x      left of the area
+     * @param y      top of the area
+     * @param width  width of the area
+     * @param height height of the area
+     */
+    public void invalidate(int x, int y, int width, int height) {
+        if (cellSize <= 0) {
+            dirty = true;
+            return;
+        }
+        int cx0 = Math.floorDiv(x - this.x, cellSize), cx1 = Math.floorDiv(x + width - 1 - this.x, cellSize);
+        int cy0 = Math.floorDiv(y - this.y, cellSize), cy1 = Math.floorDiv(y + height - 1 - this.y, cellSize);
+        for (Cell c : cells) {
+            if (c.cx >= cx0 && c.cx <= cx1 && c.cy >= cy0 && c.cy <= cy1) {
+                c.dirty = true;
+            }
+        }
+    }
+
+    /**
+     * Draw the layer.
+     *
+     * @param g the Graphics2D context to draw on.
+     */
+    public void draw(Graphics2D g) {
+        if (!staticContent) {
+            painter.accept(g);
+            return;
+        }
+        if (width <= 0 || height <= 0) {
+            return;
+        }
+        if (cellSize > 0) {
+            drawCells(g);
+            return;
+        }
+        if (dirty || cache == null) {
+            render();
+        }
+        g.drawImage(cache, x, y, null);
+    }
+
+    private void drawCells(Graphics2D g) {
+        int x0 = x, y0 = y, x1 = x + width, y1 = y + height;
+        if (viewWidth >= 0) {
+            x0 = Math.max(x0, viewX);
+            y0 = Math.max(y0, viewY);
+            x1 = Math.min(x1, viewX + viewWidth);
+            y1 = Math.min(y1, viewY + viewHeight);
+        }
+        if (x0 >= x1 || y0 >= y1) {
+            return;
+        }
+        int cx0 = (x0 - x) / cellSize, cx1 = (x1 - 1 - x) / cellSize;
+        int cy0 = (y0 - y) / cellSize, cy1 = (y1 - 1 - y) / cellSize;
+        // keep one ring of cells around the view, so that a small move back
+        // does not render them again.
+        for (int i = cells.size() - 1; i >= 0; i--) {
+            Cell c = cells.get(i);
+            if (c.cx < cx0 - 1 || c.cx > cx1 + 1 || c.cy < cy0 - 1 || c.cy > cy1 + 1) {
+                freeImages.push(c.image);
+                cells.set(i, cells.get(cells.size() - 1));
+                cells.remove(cells.size() - 1);
+            }
+        }
+        for (int cy = cy0; cy <= cy1; cy++) {
+            for (int cx = cx0; cx <= cx1; cx++) {
+                Cell c = getCell(cx, cy);
+                if (c.dirty) {
+                    renderCell(c);
+                }
+                g.drawImage(c.image, x + cx * cellSize, y + cy * cellSize, null);
+            }
+        }
+    }
+
+    private Cell getCell(int cx, int cy) {
+        for (Cell c : cells) {
+            if (c.cx == cx && c.cy == cy) {
+                return c;
+            }
+        }
+        Cell c = new Cell();
+        c.cx = cx;
+        c.cy = cy;
+        c.image = freeImages.isEmpty()
+                ? ImageCache.createCompatible(cellSize, cellSize, Transparency.TRANSLUCENT)
+                : freeImages.pop();
+        cells.add(c);
+        return c;
+    }
+
+    private void releaseCells() {
+        for (Cell c : cells) {
+            freeImages.push(c.image);
+        }
+        cells.clear();
+    }
+
+    private void renderCell(Cell c) {
+        int left = x + c.cx * cellSize, top = y + c.cy * cellSize;
+        Graphics2D cg = c.image.createGraphics();
+        cg.setComposite(AlphaComposite.Clear);
+        cg.fillRect(0, 0, cellSize, cellSize);
+        cg.setComposite(AlphaComposite.SrcOver);
+        cg.translate(-left, -top);
+        // the last cells may go past the layer bounds.
+        cg.clipRect(left, top, Math.min(cellSize, x + width - left), Math.min(cellSize, y + height - top));
+        painter.accept(cg);
+        cg.dispose();
+        c.dirty = false;
+        renderCount++;
+    }
+
+    private void render() {
+        if (cache == null || cache.getWidth() != width || cache.getHeight() != height) {
+            cache = ImageCache.createCompatible(width, height, Transparency.TRANSLUCENT);
+        }
+        Graphics2D cg = cache.createGraphics();
+        cg.setComposite(AlphaComposite.Clear);
+        cg.fillRect(0, 0, width, height);
+        cg.setComposite(AlphaComposite.SrcOver);
+        cg.translate(-x, -y);
+        painter.accept(cg);
+        cg.dispose();
+        dirty = false;
+        renderCount++;
+    }
+}
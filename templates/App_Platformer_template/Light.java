@@ -0,0 +1,63 @@
+package ${PROJECT_PACKAGE_NAME};
+
+import java.awt.Color;
+
+/**
+ * A point light, drawn by the {@link LightingLayer}.
+ */
+public class Light {
+    public float x, y;
+    /**
+     * Distance where the light fades out, in world units.
+     */
+    public float radius;
+    public Color color = Color.WHITE;
+    public boolean enabled = true;
+    /**
+     * The entity the light is centered on, if any.
+     */
+    public Entity target;
+
+    // the light mask cached by the lighting layer, and its key.
+    int[] mask;
+    long maskKey = -1;
+
+    /**
+     * Creates a new light.
+     *
+     * @param x      the x coordinate
+     * @param y      the y coordinate
+     * @param radius the light radius
+     */
+    public Light(float x, float y, float radius) {
+        this.x = x;
+        this.y = y;
+        this.radius = radius;
+    }
+
+    public Light setColor(Color color) {
+        this.color = color;
+        return this;
+    }
+
+    public Light setRadius(float radius) {
+        this.radius = radius;
+        return this;
+    }
+
+    /**
+     * Center the light on an entity, following it.
+     *
+     * @param target the entity to follow
+     * @return the updated light.
+     */
+    public Light setTarget(Entity target) {
+        this.target = target;
+        return this;
+    }
+
+    public Light setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        return this;
+    }
+}
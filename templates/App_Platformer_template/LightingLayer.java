@@ -0,0 +1,178 @@
+package ${PROJECT_PACKAGE_NAME};
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Darken the scene with an ambient light and light it up with point
+ * {@link Light}s.
+ * <p>
+ * Lights are accumulated into a light map at a fraction of the screen
+ * resolution: the map is filled with the ambient color, then the radial mask
+ * of each visible light is added with a saturated per channel addition. Masks
+ * are computed once per mask radius and color and cached, so that a light
+ * costs a copy of its mask and off-screen lights nothing at all. The map is
+ * finally upscaled over the scene. Its pixels are copied into the overlay
+ * image instead of being written into the image buffer, so that Java2D can
+ * keep a video memory copy of it.
+ * <p>
+ * Java2D has no multiply composite: each light map pixel is turned into a
+ * premultiplied overlay pixel, darkening the scene by the lowest light channel
+ * and adding the rest of the light color. This multiplies the scene by the
+ * light exactly for white lights and white surfaces, and tints the others.
+ */
+public class LightingLayer {
+    /**
+     * The light of the areas lit by no light.
+     */
+    public Color ambient = new Color(48, 48, 64);
+    /**
+     * Resolution of the light map, relative to the screen.
+     */
+    public float resolution = 0.25f;
+    /**
+     * Upscale the light map with a bilinear filter, else with the nearest
+     * neighbor.
+     */
+    public boolean smooth = true;
+    public final List<Light> lights = new ArrayList<>();
+    /**
+     * Number of lights drawn by the last render.
+     */
+    public int visibleLights = 0;
+
+    private final Map<Long, int[]> masks = new HashMap<>();
+    private int mapWidth, mapHeight;
+    private int[] lightMap;
+    private BufferedImage overlay;
+    private int[] overlayPixels;
+
+    public LightingLayer add(Light light) {
+        lights.add(light);
+        return this;
+    }
+
+    /**
+     * Draw the lighting over the scene.
+     *
+     * @param g      the Graphics2D context to draw on, in screen coordinates
+     * @param camera the camera the scene is seen through
+     * @param width  screen width
+     * @param height screen height
+     */
+    public void render(Graphics2D g, Camera camera, int width, int height) {
+        int mw = (int) Math.ceil(width * resolution), mh = (int) Math.ceil(height * resolution);
+        if (overlay == null || mw != mapWidth || mh != mapHeight) {
+            mapWidth = mw;
+            mapHeight = mh;
+            lightMap = new int[mw * mh];
+            overlay = new BufferedImage(mw, mh, BufferedImage.TYPE_INT_ARGB_PRE);
+            overlayPixels = new int[mw * mh];
+        }
+        Arrays.fill(lightMap, ambient.getRGB() & 0xFFFFFF);
+
+        float scale = camera.zoom * resolution;
+        visibleLights = 0;
+        for (Light light : lights) {
+            if (!light.enabled) {
+                continue;
+            }
+            float lx = light.x, ly = light.y;
+            if (light.target != null) {
+                lx = light.target.x + light.target.width * 0.5f;
+                ly = light.target.y + light.target.height * 0.5f;
+            }
+            int r = (int) Math.ceil(light.radius * scale);
+            int cx = (int) ((lx - camera.x) * scale), cy = (int) ((ly - camera.y) * scale);
+            if (r <= 0 || cx + r < 0 || cy + r < 0 || cx - r >= mw || cy - r >= mh) {
+                continue;
+            }
+            addMask(getMask(light, r), r, cx, cy);
+            visibleLights++;
+        }
+
+        for (int i = 0; i < lightMap.length; i++) {
+            int c = lightMap[i];
+            int red = (c >> 16) & 0xFF, green = (c >> 8) & 0xFF, blue = c & 0xFF;
+            int min = Math.min(red, Math.min(green, blue));
+            overlayPixels[i] = ((255 - min) << 24) | ((red - min) << 16) | ((green - min) << 8) | (blue - min);
+        }
+        overlay.getRaster().setDataElements(0, 0, mw, mh, overlayPixels);
+        if (smooth) {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        }
+        g.drawImage(overlay, 0, 0, (int) (mw / resolution), (int) (mh / resolution), null);
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR);
+    }
+
+    /**
+     * Release the cached light masks, e.g. after a large zoom change.
+     */
+    public void clearCache() {
+        masks.clear();
+        for (Light light : lights) {
+            light.mask = null;
+            light.maskKey = -1;
+        }
+    }
+
+    /**
+     * Retrieve the mask of a light, from the light itself while its radius and
+     * color do not change, else from the shared cache.
+     */
+    private int[] getMask(Light light, int r) {
+        long key = ((long) r << 32) | (light.color.getRGB() & 0xFFFFFFFFL);
+        if (light.maskKey != key) {
+            light.mask = masks.computeIfAbsent(key, k -> createMask(r, light.color));
+            light.maskKey = key;
+        }
+        return light.mask;
+    }
+
+    /**
+     * Compute a radial light mask with a quadratic falloff.
+     */
+    private static int[] createMask(int r, Color color) {
+        int size = r * 2 + 1;
+        int[] mask = new int[size * size];
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                float dx = x - r, dy = y - r;
+                float f = Math.max(0, 1 - (float) Math.sqrt(dx * dx + dy * dy) / r);
+                f *= f;
+                mask[y * size + x] = ((int) (color.getRed() * f) << 16)
+                        | ((int) (color.getGreen() * f) << 8)
+                        | (int) (color.getBlue() * f);
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Add a mask centered on a light map point, clipped to the map.
+     */
+    private void addMask(int[] mask, int r, int cx, int cy) {
+        int size = r * 2 + 1;
+        int x0 = Math.max(0, cx - r), x1 = Math.min(mapWidth, cx + r + 1);
+        int y0 = Math.max(0, cy - r), y1 = Math.min(mapHeight, cy + r + 1);
+        for (int y = y0; y < y1; y++) {
+            int m = (y - cy + r) * size + (x0 - cx + r);
+            int p = y * mapWidth + x0;
+            for (int x = x0; x < x1; x++, m++, p++) {
+                int a = lightMap[p], b = mask[m];
+                // add the 3 channels at once, then saturate the overflowed ones.
+                int sum = a + b;
+                int carries = (sum ^ a ^ b) & 0x01010100;
+                sum -= carries;
+                lightMap[p] = (sum | (carries - (carries >> 8))) & 0xFFFFFF;
+            }
+        }
+    }
+}
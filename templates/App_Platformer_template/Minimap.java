@@ -0,0 +1,165 @@
+package ${PROJECT_PACKAGE_NAME};
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A {@link Hud} widget showing the world around the camera at a small scale.
+ * <p>
+ * The tiles are kept into an image with one pixel per tile. Only the chunks
+ * whose version changed, or which were loaded or evicted, are written again
+ * into it, so that static content costs nothing once drawn. The entities are
+ * drawn over it as dots, from a spatial query of the area shown by the
+ * minimap. The widget is rendered again every {@link #refreshFrames} frames
+ * only, and drawn from its cached image in between.
+ */
+public class Minimap extends HudWidget {
+    public final World world;
+    public final Camera camera;
+    public final int width, height;
+    /**
+     * Size of a tile on the minimap, in screen pixels.
+     */
+    public int zoom = 2;
+    /**
+     * Number of frames between two renderings of the minimap.
+     */
+    public int refreshFrames = 6;
+    /**
+     * Number of chunks written into the tiles image since the start.
+     */
+    public int chunkUpdates = 0;
+    public Color backgroundColor = new Color(0, 0, 0, 160);
+    public Color viewColor = Color.WHITE;
+    public Color targetColor = Color.YELLOW;
+
+    private TileMap map;
+    private BufferedImage tiles;
+    private TileChunk[] drawnChunks;
+    private int[] drawnVersions;
+    private int mapVersion = -1;
+    private final int[] chunkPixels = new int[TileChunk.SIZE * TileChunk.SIZE];
+    private final List<Entity> found = new ArrayList<>();
+    private int frames = 0;
+
+    /**
+     * Creates a new minimap.
+     *
+     * @param name   the widget name
+     * @param world  the world to be shown
+     * @param camera the camera the minimap is centered on
+     * @param width  minimap width, in pixels
+     * @param height minimap height, in pixels
+     */
+    public Minimap(String name, World world, Camera camera, int width, int height) {
+        super(name);
+        this.world = world;
+        this.camera = camera;
+        this.width = width;
+        this.height = height;
+    }
+
+    public Minimap setRefreshFrames(int refreshFrames) {
+        this.refreshFrames = Math.max(1, refreshFrames);
+        return this;
+    }
+
+    public Minimap setZoom(int zoom) {
+        this.zoom = Math.max(1, zoom);
+        invalidate();
+        return this;
+    }
+
+    public void update() {
+        if (++frames >= refreshFrames) {
+            frames = 0;
+            invalidate();
+        }
+    }
+
+    protected int getWidth() {
+        return width;
+    }
+
+    protected int getHeight() {
+        return height;
+    }
+
+    protected void paint(Graphics2D g) {
+        g.setColor(backgroundColor);
+        g.fillRect(0, 0, width, height);
+        TileMap tm = world.tileMap;
+        if (tm != null) {
+            updateTiles(tm);
+            int ts = tm.tileSize;
+            // the shown tiles, centered on the camera and kept into the map.
+            int tilesW = Math.min(tm.cols, width / zoom), tilesH = Math.min(tm.rows, height / zoom);
+            int tx0 = tm.toTileX(camera.x + camera.getViewWidth() * 0.5f) - tilesW / 2;
+            int ty0 = tm.toTileY(camera.y + camera.getViewHeight() * 0.5f) - tilesH / 2;
+            tx0 = Math.max(0, Math.min(tm.cols - tilesW, tx0));
+            ty0 = Math.max(0, Math.min(tm.rows - tilesH, ty0));
+            g.drawImage(tiles, 0, 0, tilesW * zoom, tilesH * zoom, tx0, ty0, tx0 + tilesW, ty0 + tilesH, null);
+
+            float left = tm.x + tx0 * ts, top = tm.y + ty0 * ts;
+            float scale = (float) zoom / ts;
+            world.queryRegion(left, top, tilesW * ts, tilesH * ts, found);
+            for (int i = 0; i < found.size(); i++) {
+                Entity e = found.get(i);
+                g.setColor(e == camera.target ? targetColor : e.fillColor != null ? e.fillColor : Color.GRAY);
+                g.fillRect((int) ((e.x - left) * scale), (int) ((e.y - top) * scale),
+                        Math.max(2, (int) (e.width * scale)), Math.max(2, (int) (e.height * scale)));
+            }
+            g.setColor(viewColor);
+            g.drawRect((int) ((camera.x - left) * scale), (int) ((camera.y - top) * scale),
+                    (int) (camera.getViewWidth() * scale), (int) (camera.getViewHeight() * scale));
+            found.clear();
+        }
+        g.setColor(viewColor);
+        g.drawRect(0, 0, width - 1, height - 1);
+    }
+
+    /**
+     * Write into the tiles image the chunks changed since the last call.
+     */
+    private void updateTiles(TileMap tm) {
+        if (tm != map) {
+            map = tm;
+            tiles = new BufferedImage(tm.cols, tm.rows, BufferedImage.TYPE_INT_ARGB);
+            drawnChunks = new TileChunk[tm.chunksX * tm.chunksY];
+            drawnVersions = new int[drawnChunks.length];
+            mapVersion = -1;
+        }
+        if (tm.version == mapVersion) {
+            return;
+        }
+        mapVersion = tm.version;
+        for (int cy = 0; cy < tm.chunksY; cy++) {
+            for (int cx = 0; cx < tm.chunksX; cx++) {
+                int index = cy * tm.chunksX + cx;
+                TileChunk chunk = tm.getChunk(cx, cy);
+                if (chunk == drawnChunks[index] && (chunk == null || chunk.version == drawnVersions[index])) {
+                    continue;
+                }
+                drawChunk(tm, cx, cy, chunk);
+                drawnChunks[index] = chunk;
+                drawnVersions[index] = chunk != null ? chunk.version : 0;
+                chunkUpdates++;
+            }
+        }
+    }
+
+    private void drawChunk(TileMap tm, int cx, int cy, TileChunk chunk) {
+        int x0 = cx << TileChunk.BITS, y0 = cy << TileChunk.BITS;
+        int w = Math.min(TileChunk.SIZE, tm.cols - x0), h = Math.min(TileChunk.SIZE, tm.rows - y0);
+        for (int ly = 0; ly < h; ly++) {
+            for (int lx = 0; lx < w; lx++) {
+                Color c = chunk != null ? tm.getColor(chunk.get(lx, ly)) : null;
+                chunkPixels[ly * w + lx] = c != null ? c.getRGB() : 0;
+            }
+        }
+        tiles.getRaster().setDataElements(x0, y0, w, h, chunkPixels);
+    }
+}
@@ -7,9 +7,13 @@ import java.awt.Graphics2D;
 import java.awt.RenderingHints;
 import java.awt.event.KeyEvent;
 import java.awt.event.KeyListener;
+import java.awt.geom.AffineTransform;
 import java.awt.image.BufferStrategy;
 import java.awt.image.BufferedImage;
+import java.nio.file.Path;
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -74,6 +78,68 @@ public class Platformer implements KeyListener {
 
   public int score = 0, life = 3;
 
+  /**
+   * The atlas packing all the game sprites.
+   */
+  public TextureAtlas atlas = new TextureAtlas(1024);
+  /**
+   * The cache keeping sprites in the screen layout and video memory.
+   */
+  public ImageCache images = new ImageCache();
+  /**
+   * The batch drawing the atlas sprites, page by page.
+   */
+  public SpriteBatch batch = new SpriteBatch(atlas, images);
+  /**
+   * The animations of the entities, advanced once per update.
+   */
+  public AnimationSystem animations = new AnimationSystem();
+  /**
+   * The lights of the scene, drawn over the world and the entities.
+   */
+  public LightingLayer lighting = new LightingLayer();
+  /**
+   * Draw the lighting layer.
+   */
+  public boolean lightingEnabled = true;
+  /**
+   * The head-up display, drawn over the scene.
+   */
+  public Hud hud = new Hud();
+  /**
+   * Show the minimap into the HUD.
+   */
+  public boolean minimapEnabled = true;
+  /**
+   * Number of frames between two minimap renderings.
+   */
+  public int minimapRefresh = 6;
+  private long lastUpdateTime = 0;
+  private static final Comparator<Entity> CREATION_ORDER = Comparator.comparingLong(e -> e.id);
+  /**
+   * The entities found into the camera view, reused from frame to frame.
+   */
+  private final List<Entity> visible = new ArrayList<>();
+
+  /**
+   * The player entity.
+   */
+  public Entity player;
+  /**
+   * The camera showing the world around the player.
+   */
+  public Camera camera = new Camera(800, 600);
+
+  /**
+   * Directory where the world chunks are streamed from and to, null to keep
+   * the whole world in memory.
+   */
+  public String streamPath = null;
+  /**
+   * The world chunks streamer, active when a stream path is defined.
+   */
+  public ChunkStreamer streamer;
+
   /**
    * Creates a new instance of the Platformer.
    */
@@ -119,10 +185,15 @@ public class Platformer implements KeyListener {
     window.setVisible(true);
     window.createBufferStrategy(3);
     world.setSize(window.getWidth(), window.getHeight());
+    camera.setViewSize(window.getWidth(), window.getHeight());
   }
 
   private void load() {
     // load every resource you may need.
+    // register sprites with atlas.register(name, image) and pack them all.
+    // slice animation sheets with Animation.fromSheet(atlas, ...) before packing,
+    // and play them with animations.play(entity, clip).
+    atlas.pack();
   }
 
   private void create() {
@@ -130,42 +201,107 @@ public class Platformer implements KeyListener {
         world
             .setSize((int) (window.getWidth() * 0.75), (int) (window.getHeight() * 0.75))
             .setPosition((int) (window.getWidth() * 0.125), (int) (window.getHeight() * 0.125)));
+    // Create the level tiles, sitting on the world bottom.
+    String[] level = {
+        "                 ====                ",
+        "                                     ",
+        "        ====               ====      ",
+        "                                     ",
+        "   ==                          ==    ",
+        "                   #                 ",
+        "                  /#\\                ",
+        "                 /###\\               ",
+        "################/#####\\##############" };
+    TileMap map = new TileMap(level[0].length(), level.length, 16)
+        .setPosition(world.x, world.y + world.height - level.length * 16)
+        .defineDefaults();
+    Path chunks = streamPath != null ? Path.of(streamPath) : null;
+    boolean exported = chunks != null && ChunkStreamer.isExported(chunks, map);
+    if (!exported) {
+      // build the level in memory, exported once when streamed.
+      map.load(level);
+    }
+    world.setTileMap(map);
     // Create contextual scene.
-    entities.add(
-        new Entity("player", window.getWidth() / 2, window.getHeight() / 2, 24, 32)
-            .setColor(Color.WHITE)
-            .setFillColor(Color.GREEN)
-            .addBehavior(e -> {
-              float speed = 0.3f;
-              float friction = 0.98f;
-
-              if (isKeyPressed(KeyEvent.VK_LEFT)) {
-                e.dx = -speed;
-              } else if (isKeyPressed(KeyEvent.VK_RIGHT)) {
-                e.dx = speed;
-              } else {
-                e.dx = e.dx * 0.98f;
-              }
-              if (isKeyPressed(KeyEvent.VK_UP)) {
-                e.dy = -speed;
-              } else if (isKeyPressed(KeyEvent.VK_DOWN)) {
-                e.dy = speed;
-              } else {
-                e.dy = e.dy * friction;
-              }
-            })
-            .addBehavior(e -> {
-              e.dy += world.gravity * .005f;
-            }));
+    player = new Entity("player", window.getWidth() / 2, window.getHeight() / 2, 24, 32)
+        .setColor(Color.WHITE)
+        .setFillColor(Color.GREEN)
+        .setSleepable(false)
+        .addBehavior(e -> {
+          float speed = 0.3f;
+          float friction = 0.98f;
+
+          if (isKeyPressed(KeyEvent.VK_LEFT)) {
+            e.dx = -speed;
+          } else if (isKeyPressed(KeyEvent.VK_RIGHT)) {
+            e.dx = speed;
+          } else {
+            e.dx = e.dx * 0.98f;
+          }
+          if (isKeyPressed(KeyEvent.VK_UP)) {
+            e.dy = -speed;
+          } else if (isKeyPressed(KeyEvent.VK_DOWN)) {
+            e.dy = speed;
+          } else {
+            e.dy = e.dy * friction;
+          }
+        })
+        .addBehavior(e -> {
+          e.dy += world.gravity * .005f;
+        });
+    entities.add(player);
+    lighting.add(new Light(0, 0, 160).setColor(new Color(255, 224, 160)).setTarget(player))
+        .add(new Light(world.x + world.width * 0.5f, world.y + world.height - 96, 120)
+            .setColor(new Color(160, 192, 255)));
+    hud.add(new HudWidget.Counter("score", () -> score, 5, 28.0f)
+        .setPosition(Hud.Anchor.TOP_RIGHT, -20, 32))
+        .add(new HudWidget.Counter("life", () -> life, 2, 28.0f)
+            .setPosition(Hud.Anchor.TOP_LEFT, 28, 32));
+    if (minimapEnabled) {
+      hud.add(new Minimap("minimap", world, camera, 160, 96)
+          .setRefreshFrames(minimapRefresh)
+          .setPosition(Hud.Anchor.BOTTOM_RIGHT, -20, -40));
+    }
+    camera.setBounds(world.x, world.y, world.width, world.height)
+        .setTarget(player, 64, 48);
+    if (chunks != null) {
+      // only the chunks around the player are kept in memory.
+      streamer = new ChunkStreamer(map, entities, chunks);
+      if (!exported) {
+        streamer.export();
+      }
+      streamer.update(player.x, player.y);
+      streamer.awaitLoaded();
+    }
   }
 
   public void update() {
+    if (streamer != null) {
+      streamer.update(player.x, player.y);
+    }
     for (Entity e : entities) {
+      if (e.frozen || (e.sleeping && e.behaviors.isEmpty())) {
+        continue;
+      }
       e.update();
+      if (e.sleeping) {
+        continue;
+      }
+      world.collide(e);
       if (!world.contains(e)) {
         world.clamp(e);
       }
+      world.updateSleepState(e);
+    }
+    world.updateIndex(entities);
+    world.wakeUpTouched(entities);
+    // integer milliseconds, so that animations do not drift.
+    long now = System.currentTimeMillis();
+    if (lastUpdateTime > 0) {
+      animations.update((int) (now - lastUpdateTime));
     }
+    lastUpdateTime = now;
+    camera.update();
   }
 
   public void render() {
@@ -181,20 +317,37 @@ public class Platformer implements KeyListener {
     g.setBackground(Color.BLACK);
     g.clearRect(0, 0, window.getWidth(), window.getHeight());
 
-    // draw entities
-    for (Entity e : entities) {
-      e.draw(g);
+    // draw the world and the visible entities through the camera.
+    AffineTransform screen = g.getTransform();
+    g.transform(camera.getTransform());
+    world.setView(camera.x, camera.y, camera.getViewWidth(), camera.getViewHeight());
+    batch.begin();
+    world.draw(g, batch);
+    // the spatial index culls the entities out of the view, drawn in creation order.
+    world.queryRegion(camera.x, camera.y, camera.getViewWidth(), camera.getViewHeight(), visible);
+    visible.sort(CREATION_ORDER);
+    for (int i = 0; i < visible.size(); i++) {
+      visible.get(i).draw(g, batch);
+    }
+    batch.end(g);
+    g.setTransform(screen);
+    if (lightingEnabled) {
+      lighting.render(g, camera, window.getWidth(), window.getHeight());
     }
 
     // do you drawings
-    drawText(g, "%05d".formatted(score),
-        (int) (window.getWidth() - 20), 60,
-        TextAlign.RIGHT,
-        28.0f, Color.WHITE);
-    drawText(g, "%02d".formatted(life),
-        60, 60,
-        TextAlign.RIGHT,
-        28.0f, Color.WHITE);
+    hud.draw(g, window.getWidth(), window.getHeight());
+
+    if (debug > 0) {
+      drawText(g, "[ img acc:%d | miss:%d | restored:%d | cam:%.0f,%.0f x%.1f | anim:%d | lights:%d/%d ]".formatted(
+          images.hits, images.misses, images.restores, camera.x, camera.y, camera.zoom, animations.size(),
+          lighting.visibleLights, lighting.lights.size()),
+          20, window.getHeight() - 20,
+          TextAlign.LEFT,
+          11.0f, Color.ORANGE);
+    }
+    images.resetCounters();
+    images.endFrame();
 
     // switch buffer
     g.dispose();
@@ -252,6 +405,38 @@ public class Platformer implements KeyListener {
           mode = AppMode.valueOf(value.toUpperCase());
           info(Platformer.class, "read config '%s' = '%s'", key, value);
           break;
+        case "app.camera.zoom":
+          camera.setZoom(Float.parseFloat(value));
+          info(Platformer.class, "read config '%s' = '%s'", key, value);
+          break;
+        case "app.camera.snap":
+          camera.pixelSnap = Boolean.parseBoolean(value);
+          info(Platformer.class, "read config '%s' = '%s'", key, value);
+          break;
+        case "app.render.lighting":
+          lightingEnabled = Boolean.parseBoolean(value);
+          info(Platformer.class, "read config '%s' = '%s'", key, value);
+          break;
+        case "app.render.lighting.ambient":
+          lighting.ambient = Color.decode(value);
+          info(Platformer.class, "read config '%s' = '%s'", key, value);
+          break;
+        case "app.render.lighting.smooth":
+          lighting.smooth = Boolean.parseBoolean(value);
+          info(Platformer.class, "read config '%s' = '%s'", key, value);
+          break;
+        case "app.minimap":
+          minimapEnabled = Boolean.parseBoolean(value);
+          info(Platformer.class, "read config '%s' = '%s'", key, value);
+          break;
+        case "app.minimap.refresh":
+          minimapRefresh = Integer.parseInt(value);
+          info(Platformer.class, "read config '%s' = '%s'", key, value);
+          break;
+        case "app.world.stream.path":
+          streamPath = value;
+          info(Platformer.class, "read config '%s' = '%s'", key, value);
+          break;
         default:
           warn(Platformer.class, "Unknown config key: %s", key);
       }
@@ -263,6 +448,10 @@ public class Platformer implements KeyListener {
    * Disposes the Platformer resources.
    */
   private void dispose() {
+    if (streamer != null) {
+      streamer.dispose();
+      streamer = null;
+    }
     if (Optional.ofNullable(window).isPresent()) {
       window.dispose();
     }
@@ -0,0 +1,332 @@
+package ${PROJECT_PACKAGE_NAME};
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A uniform grid spatial index over entities.
+ * <p>
+ * The grid covers a rectangular area split into square cells; each entity is
+ * referenced by every cell its bounding box overlaps. Entities out of the area
+ * are stored into the nearest border cells. The grid is rebuilt each frame and
+ * reuses its cell lists, so neither the rebuild nor the queries allocate once
+ * the lists have grown to their working size.
+ */
+public class SpatialGrid {
+
+    /**
+     * The result of a {@link SpatialGrid#raycast} call.
+     */
+    public static class RayHit {
+        /**
+         * The first entity hit by the ray, null if none.
+         */
+        public Entity entity;
+        /**
+         * Distance from the ray origin to the hit point.
+         */
+        public float distance;
+        /**
+         * Coordinates of the hit point.
+         */
+        public float x, y;
+    }
+
+    public final int cellSize;
+
+    private float originX, originY;
+    private int cols = 0, rows = 0;
+    private final List<List<Entity>> cells = new ArrayList<>();
+
+    private int stamp = 0;
+    private float[] distances = new float[8];
+
+    /**
+     * Creates a new grid with the specified cell size.
+     *
+     * @param cellSize the size of a cell, in pixels.
+     */
+    public SpatialGrid(int cellSize) {
+        this.cellSize = cellSize;
+    }
+
+    /**
+     * Adapt the grid to cover the specified area.
+     *
+     * @param x      left of the area
+     * @param y      top of the area
+     * @param width  width of the area
+     * @param height height of the area
+     */
+    public void resize(float x, float y, int width, int height) {
+        this.originX = x;
+        this.originY = y;
+        this.cols = Math.max(1, (width + cellSize - 1) / cellSize);
+        this.rows = Math.max(1, (height + cellSize - 1) / cellSize);
+        while (cells.size() < cols * rows) {
+            cells.add(new ArrayList<>());
+        }
+    }
+
+    /**
+     * Remove all the entities from the grid.
+     */
+    public void clear() {
+        for (int i = 0; i < cols * rows; i++) {
+            cells.get(i).clear();
+        }
+    }
+
+    /**
+     * Add an entity to all the cells its bounding box overlaps.
+     *
+     * @param e the entity to add.
+     */
+    public void insert(Entity e) {
+        int x0 = cellX(e.x), x1 = cellX(e.x + e.width);
+        int y0 = cellY(e.y), y1 = cellY(e.y + e.height);
+        for (int cy = y0; cy <= y1; cy++) {
+            for (int cx = x0; cx <= x1; cx++) {
+                cells.get(cy * cols + cx).add(e);
+            }
+        }
+    }
+
+    /**
+     * Collect the entities overlapping or touching the specified rectangle.
+     *
+     * @param x      left of the region
+     * @param y      top of the region
+     * @param w      width of the region
+     * @param h      height of the region
+     * @param result the caller's list to be cleared and filled with the found
+     *               entities.
+     * @return the number of found entities.
+     */
+    public int queryRegion(float x, float y, float w, float h, List<Entity> result) {
+        result.clear();
+        int s = ++stamp;
+        int x0 = cellX(x), x1 = cellX(x + w);
+        int y0 = cellY(y), y1 = cellY(y + h);
+        for (int cy = y0; cy <= y1; cy++) {
+            for (int cx = x0; cx <= x1; cx++) {
+                List<Entity> cell = cells.get(cy * cols + cx);
+                for (int i = 0; i < cell.size(); i++) {
+                    Entity e = cell.get(i);
+                    if (e.queryStamp != s && overlaps(e, x, y, w, h)) {
+                        e.queryStamp = s;
+                        result.add(e);
+                    }
+                }
+            }
+        }
+        return result.size();
+    }
+
+    /**
+     * Collect the entities containing the specified point.
+     *
+     * @param x      the point x coordinate
+     * @param y      the point y coordinate
+     * @param result the caller's list to be cleared and filled with the found
+     *               entities.
+     * @return the number of found entities.
+     */
+    public int queryPoint(float x, float y, List<Entity> result) {
+        return queryRegion(x, y, 0, 0, result);
+    }
+
+    /**
+     * Cast a ray and retrieve the first entity it hits, walking the grid cells
+     * along the ray (DDA) and stopping at the first cell where a hit is known to
+     * be the nearest one.
+     *
+     * @param ox          ray origin x
+     * @param oy          ray origin y
+     * @param dx          ray direction x
+     * @param dy          ray direction y
+     * @param maxDistance maximum distance to be tested
+     * @param hit         the caller's hit to be filled.
+     * @return the hit entity, or null if none.
+     */
+    public Entity raycast(float ox, float oy, float dx, float dy, float maxDistance, RayHit hit) {
+        return raycast(ox, oy, dx, dy, maxDistance, null, hit);
+    }
+
+    /**
+     * Cast a ray and retrieve the first entity it hits, skipping one entity:
+     * usually the caster, as a ray cast from its inside hits it at distance 0.
+     *
+     * @param ox          ray origin x
+     * @param oy          ray origin y
+     * @param dx          ray direction x
+     * @param dy          ray direction y
+     * @param maxDistance maximum distance to be tested
+     * @param ignore      the entity to be skipped, or null
+     * @param hit         the caller's hit to be filled.
+     * @return the hit entity, or null if none.
+     */
+    public Entity raycast(float ox, float oy, float dx, float dy, float maxDistance, Entity ignore, RayHit hit) {
+        hit.entity = null;
+        hit.distance = maxDistance;
+        float len = (float) Math.sqrt(dx * dx + dy * dy);
+        if (len == 0 || cols == 0) {
+            return null;
+        }
+        dx /= len;
+        dy /= len;
+        // move the origin onto the grid area if it starts outside.
+        float t = slab(ox, oy, dx, dy, originX, originY, cols * cellSize, rows * cellSize);
+        if (t < 0 || t > maxDistance) {
+            return null;
+        }
+        int cx = cellX(ox + dx * t), cy = cellY(oy + dy * t);
+        int stepX = dx > 0 ? 1 : -1, stepY = dy > 0 ? 1 : -1;
+        float tDeltaX = dx != 0 ? Math.abs(cellSize / dx) : Float.MAX_VALUE;
+        float tDeltaY = dy != 0 ? Math.abs(cellSize / dy) : Float.MAX_VALUE;
+        float tMaxX = dx != 0 ? (originX + (cx + (dx > 0 ? 1 : 0)) * cellSize - ox) / dx : Float.MAX_VALUE;
+        float tMaxY = dy != 0 ? (originY + (cy + (dy > 0 ? 1 : 0)) * cellSize - oy) / dy : Float.MAX_VALUE;
+        int s = ++stamp;
+        while (cx >= 0 && cx < cols && cy >= 0 && cy < rows && t <= hit.distance) {
+            List<Entity> cell = cells.get(cy * cols + cx);
+            for (int i = 0; i < cell.size(); i++) {
+                Entity e = cell.get(i);
+                if (e.queryStamp != s && e != ignore) {
+                    e.queryStamp = s;
+                    float te = slab(ox, oy, dx, dy, e.x, e.y, e.width, e.height);
+                    if (te >= 0 && te <= hit.distance) {
+                        hit.entity = e;
+                        hit.distance = te;
+                    }
+                }
+            }
+            if (tMaxX < tMaxY) {
+                t = tMaxX;
+                tMaxX += tDeltaX;
+                cx += stepX;
+            } else {
+                t = tMaxY;
+                tMaxY += tDeltaY;
+                cy += stepY;
+            }
+        }
+        if (hit.entity != null) {
+            hit.x = ox + dx * hit.distance;
+            hit.y = oy + dy * hit.distance;
+        }
+        return hit.entity;
+    }
+
+    /**
+     * Collect the k nearest entities from a point, sorted by increasing distance,
+     * searching the cells ring by ring around the point.
+     *
+     * @param x      the point x coordinate
+     * @param y      the point y coordinate
+     * @param k      the maximum number of entities to retrieve
+     * @param result the caller's list to be cleared and filled with the found
+     *               entities.
+     * @return the number of found entities.
+     */
+    public int nearestK(float x, float y, int k, List<Entity> result) {
+        result.clear();
+        if (k <= 0 || cols == 0) {
+            return 0;
+        }
+        if (distances.length < k) {
+            distances = new float[k];
+        }
+        int s = ++stamp;
+        int cx = cellX(x), cy = cellY(y);
+        int maxRing = Math.max(cols, rows);
+        for (int r = 0; r <= maxRing; r++) {
+            for (int j = cy - r; j <= cy + r; j++) {
+                if (j < 0 || j >= rows) {
+                    continue;
+                }
+                // only visit the border cells of the ring.
+                int step = (j == cy - r || j == cy + r) ? 1 : Math.max(1, 2 * r);
+                for (int i = cx - r; i <= cx + r; i += step) {
+                    if (i >= 0 && i < cols) {
+                        collectNearest(cells.get(j * cols + i), x, y, k, s, result);
+                    }
+                }
+            }
+            float ringDistance = r * cellSize;
+            if (result.size() == k && distances[k - 1] <= ringDistance * ringDistance) {
+                break;
+            }
+        }
+        return result.size();
+    }
+
+    private void collectNearest(List<Entity> cell, float x, float y, int k, int s, List<Entity> result) {
+        for (int i = 0; i < cell.size(); i++) {
+            Entity e = cell.get(i);
+            if (e.queryStamp == s) {
+                continue;
+            }
+            e.queryStamp = s;
+            float ddx = Math.max(Math.max(e.x - x, 0), x - (e.x + e.width));
+            float ddy = Math.max(Math.max(e.y - y, 0), y - (e.y + e.height));
+            float d = ddx * ddx + ddy * ddy;
+            int size = result.size();
+            if (size == k && d >= distances[k - 1]) {
+                continue;
+            }
+            // sorted insertion, dropping the farthest one when full.
+            int pos = size < k ? size : k - 1;
+            if (size < k) {
+                result.add(e);
+            }
+            while (pos > 0 && distances[pos - 1] > d) {
+                distances[pos] = distances[pos - 1];
+                result.set(pos, result.get(pos - 1));
+                pos--;
+            }
+            distances[pos] = d;
+            result.set(pos, e);
+        }
+    }
+
+    private static boolean overlaps(Entity e, float x, float y, float w, float h) {
+        return e.x <= x + w && e.x + e.width >= x && e.y <= y + h && e.y + e.height >= y;
+    }
+
+    /**
+     * Ray versus axis-aligned box slab test.
+     *
+     * @return the distance to the entry point, 0 if the origin is inside the box,
+     *         or -1 if the ray misses the box.
+     */
+    private static float slab(float ox, float oy, float dx, float dy, float bx, float by, float bw, float bh) {
+        float tMin = 0, tMax = Float.MAX_VALUE;
+        if (dx == 0) {
+            if (ox < bx || ox > bx + bw) {
+                return -1;
+            }
+        } else {
+            float t1 = (bx - ox) / dx, t2 = (bx + bw - ox) / dx;
+            tMin = Math.max(tMin, Math.min(t1, t2));
+            tMax = Math.min(tMax, Math.max(t1, t2));
+        }
+        if (dy == 0) {
+            if (oy < by || oy > by + bh) {
+                return -1;
+            }
+        } else {
+            float t1 = (by - oy) / dy, t2 = (by + bh - oy) / dy;
+            tMin = Math.max(tMin, Math.min(t1, t2));
+            tMax = Math.min(tMax, Math.max(t1, t2));
+        }
+        return tMin <= tMax ? tMin : -1;
+    }
+
+    private int cellX(float x) {
+        return Math.min(cols - 1, Math.max(0, (int) Math.floor((x - originX) / cellSize)));
+    }
+
+    private int cellY(float y) {
+        return Math.min(rows - 1, Math.max(0, (int) Math.floor((y - originY) / cellSize)));
+    }
+}
@@ -0,0 +1,116 @@
+package ${PROJECT_PACKAGE_NAME};
+
+import java.awt.Graphics2D;
+import java.util.Arrays;
+
+/**
+ * Collect the sprite draws of a frame and execute them grouped by atlas page.
+ * <p>
+ * Draw requests are stored into reusable int arrays, then sorted by page with a
+ * counting sort, keeping their submission order within a page. Drawing all the
+ * regions of a page in a row lets Java2D reuse the same source image state,
+ * without any per-frame allocation. Anything drawn directly between sprites
+ * must be preceded by a {@link #flush}, so that the sprites requested before it
+ * stay under it.
+ */
+public class SpriteBatch {
+    private static final int STRIDE = 8;
+
+    private final TextureAtlas atlas;
+    /**
+     * The image cache the pages are drawn through.
+     */
+    public final ImageCache images;
+    private int[] commands = new int[STRIDE * 256];
+    private int[] order = new int[256];
+    private int[] counts = new int[4];
+    private int count = 0;
+
+    /**
+     * Creates a new batch drawing from an atlas.
+     *
+     * @param atlas  the atlas holding the sprite pages.
+     * @param images the image cache used to draw the pages.
+     */
+    public SpriteBatch(TextureAtlas atlas, ImageCache images) {
+        this.atlas = atlas;
+        this.images = images;
+        atlas.images = images;
+    }
+
+    /**
+     * Start a new batch, forgetting the previous requests.
+     */
+    public void begin() {
+        count = 0;
+    }
+
+    /**
+     * Request the drawing of a packed region.
+     *
+     * @param r      the region to draw
+     * @param x      destination x
+     * @param y      destination y
+     * @param width  destination width
+     * @param height destination height
+     */
+    public void draw(AtlasRegion r, int x, int y, int width, int height) {
+        if (count == order.length) {
+            order = Arrays.copyOf(order, count * 2);
+            commands = Arrays.copyOf(commands, count * 2 * STRIDE);
+        }
+        int i = count++ * STRIDE;
+        commands[i] = r.page;
+        commands[i + 1] = r.x;
+        commands[i + 2] = r.y;
+        commands[i + 3] = r.width;
+        commands[i + 4] = r.height;
+        commands[i + 5] = x;
+        commands[i + 6] = y;
+        commands[i + 7] = (width << 16) | (height & 0xFFFF);
+    }
+
+    /**
+     * Draw all the requests, page by page.
+     *
+     * @param g the Graphics2D context to draw on.
+     */
+    public void end(Graphics2D g) {
+        flush(g);
+    }
+
+    /**
+     * Draw the requests collected so far, page by page, and keep collecting.
+     *
+     * @param g the Graphics2D context to draw on.
+     */
+    public void flush(Graphics2D g) {
+        if (count == 0) {
+            return;
+        }
+        int pages = atlas.pages.size();
+        if (counts.length < pages + 1) {
+            counts = new int[pages + 1];
+        }
+        Arrays.fill(counts, 0, pages + 1, 0);
+        for (int c = 0; c < count; c++) {
+            counts[commands[c * STRIDE] + 1]++;
+        }
+        for (int p = 1; p <= pages; p++) {
+            counts[p] += counts[p - 1];
+        }
+        for (int c = 0; c < count; c++) {
+            order[counts[commands[c * STRIDE]]++] = c;
+        }
+        for (int o = 0; o < count; o++) {
+            int i = order[o] * STRIDE;
+            int sx = commands[i + 1], sy = commands[i + 2];
+            int dx = commands[i + 5], dy = commands[i + 6];
+            int dw = commands[i + 7] >> 16, dh = commands[i + 7] & 0xFFFF;
+            images.draw(g, atlas.pages.get(commands[i]),
+                    dx, dy, dx + dw, dy + dh,
+                    sx, sy, sx + commands[i + 3], sy + commands[i + 4]);
+        }
+        count = 0;
+    }
+}
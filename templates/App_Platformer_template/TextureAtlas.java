@@ -0,0 +1,123 @@
+package ${PROJECT_PACKAGE_NAME};
+
+import java.awt.Graphics2D;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Pack many small sprites into a few large page images.
+ * <p>
+ * Sprites are registered at load time, then {@link #pack()} sorts them by
+ * height and places them row by row (shelves) into square pages, with a 1 pixel
+ * padding to avoid bleeding when scaled. Drawing from a few large images instead
+ * of one image per sprite lets Java2D keep them cached, and lets the
+ * {@link SpriteBatch} group the draws by page. Pages are created with the
+ * screen layout (see {@link ImageCache}), and the pages drawn into by a pack
+ * are invalidated into the {@link #images} cache, if any.
+ */
+public class TextureAtlas {
+    private static final int PADDING = 1;
+
+    public final int pageSize;
+    public final List<BufferedImage> pages = new ArrayList<>();
+    /**
+     * The image cache the pages are drawn through, told about page changes.
+     */
+    public ImageCache images;
+
+    private final Map<String, AtlasRegion> regions = new HashMap<>();
+    private final List<AtlasRegion> toPack = new ArrayList<>();
+
+    private int shelfX = 0, shelfY = 0, shelfHeight = 0;
+    private Graphics2D pageGraphics;
+
+    /**
+     * Creates a new empty atlas.
+     *
+     * @param pageSize width and height of a page, in pixels.
+     */
+    public TextureAtlas(int pageSize) {
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * Register a sprite to be packed at the next {@link #pack()} call.
+     *
+     * @param name   the sprite name
+     * @param sprite the sprite image
+     * @return the region of the sprite, filled when packed.
+     */
+    public AtlasRegion register(String name, BufferedImage sprite) {
+        AtlasRegion region = regions.get(name);
+        if (region == null) {
+            region = new AtlasRegion(name, sprite);
+            regions.put(name, region);
+            toPack.add(region);
+        }
+        return region;
+    }
+
+    /**
+     * Retrieve a registered sprite region.
+     *
+     * @param name the sprite name
+     * @return the region, or null if not registered.
+     */
+    public AtlasRegion get(String name) {
+        return regions.get(name);
+    }
+
+    /**
+     * Pack the sprites registered since the last call into the pages, starting
+     * new pages when needed. Sprites bigger than a page are left unpacked and
+     * keep being drawn from their own image.
+     */
+    public void pack() {
+        toPack.sort(Comparator.comparingInt((AtlasRegion r) -> r.height).reversed());
+        for (AtlasRegion r : toPack) {
+            int w = r.width + PADDING * 2, h = r.height + PADDING * 2;
+            if (w > pageSize || h > pageSize) {
+                Platformer.warn(TextureAtlas.class, "Sprite '%s' is too big for a %d pixels atlas page", r.name,
+                        pageSize);
+                continue;
+            }
+            if (shelfX + w > pageSize) {
+                shelfY += shelfHeight;
+                shelfX = 0;
+                shelfHeight = 0;
+            }
+            if (pages.isEmpty() || shelfY + h > pageSize) {
+                newPage();
+            }
+            pageGraphics.drawImage(r.source, shelfX + PADDING, shelfY + PADDING, null);
+            if (images != null) {
+                // an already drawn page may have been copied to video memory.
+                images.invalidate(pages.get(pages.size() - 1));
+            }
+            r.page = pages.size() - 1;
+            r.x = shelfX + PADDING;
+            r.y = shelfY + PADDING;
+            r.source = null;
+            shelfX += w;
+            shelfHeight = Math.max(shelfHeight, h);
+        }
+        toPack.clear();
+    }
+
+    private void newPage() {
+        if (pageGraphics != null) {
+            pageGraphics.dispose();
+        }
+        BufferedImage page = ImageCache.createCompatible(pageSize, pageSize, Transparency.TRANSLUCENT);
+        pages.add(page);
+        pageGraphics = page.createGraphics();
+        shelfX = 0;
+        shelfY = 0;
+        shelfHeight = 0;
+    }
+}
@@ -0,0 +1,72 @@
+package ${PROJECT_PACKAGE_NAME};
+
+/**
+ * A fixed-size square block of tiles of a {@link TileMap}, stored as packed
+ * tile IDs.
+ */
+public class TileChunk {
+    /**
+     * Number of bits of the chunk size.
+     */
+    public static final int BITS = 4;
+    /**
+     * Number of tiles on a chunk side.
+     */
+    public static final int SIZE = 1 << BITS;
+    /**
+     * Mask to retrieve the tile position in its chunk.
+     */
+    public static final int MASK = SIZE - 1;
+
+    /**
+     * Position of the chunk in the chunk grid.
+     */
+    public final int cx, cy;
+    /**
+     * Tile IDs, row by row.
+     */
+    public final short[] tiles = new short[SIZE * SIZE];
+    /**
+     * Set when a tile has been changed since the flag was last reset.
+     */
+    public boolean dirty = true;
+    /**
+     * Incremented on each tile change.
+     */
+    public int version = 0;
+
+    /**
+     * Creates a new empty chunk.
+     *
+     * @param cx horizontal position in the chunk grid
+     * @param cy vertical position in the chunk grid
+     */
+    public TileChunk(int cx, int cy) {
+        this.cx = cx;
+        this.cy = cy;
+    }
+
+    /**
+     * Retrieve a tile ID.
+     *
+     * @param lx horizontal tile position in the chunk
+     * @param ly vertical tile position in the chunk
+     * @return the tile ID
+     */
+    public short get(int lx, int ly) {
+        return tiles[(ly << BITS) | lx];
+    }
+
+    /**
+     * Change a tile ID.
+     *
+     * @param lx horizontal tile position in the chunk
+     * @param ly vertical tile position in the chunk
+     * @param id the new tile ID
+     */
+    public void set(int lx, int ly, short id) {
+        tiles[(ly << BITS) | lx] = id;
+        dirty = true;
+        version++;
+    }
+}
@@ -0,0 +1,379 @@
+package ${PROJECT_PACKAGE_NAME};
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.util.Arrays;
+
+/**
+ * A tile based level made of fixed-size {@link TileChunk}s.
+ * <p>
+ * Tiles are stored as IDs into the chunks, and each ID is mapped to a
+ * {@link TileType} and a color. A tile lookup is a direct index into the chunk
+ * grid and then into the chunk, so colliding an entity only costs the few tiles
+ * its bounding box overlaps, whatever the size of the level. Chunks are only
+ * allocated when a tile is set into them.
+ */
+public class TileMap {
+    public static final short EMPTY = 0;
+
+    public float x, y;
+    public final int tileSize;
+    public final int cols, rows;
+    public final int chunksX, chunksY;
+    /**
+     * Incremented on each tile or chunk change.
+     */
+    public int version = 0;
+
+    protected TileChunk[] chunks;
+
+    private TileType[] types = new TileType[16];
+    private Color[] colors = new Color[16];
+
+    private final int[] polyX = new int[3];
+    private final int[] polyY = new int[3];
+
+    /**
+     * Creates a new empty tile map.
+     *
+     * @param cols     number of tiles horizontally
+     * @param rows     number of tiles vertically
+     * @param tileSize size of a tile, in pixels
+     */
+    public TileMap(int cols, int rows, int tileSize) {
+        this.cols = cols;
+        this.rows = rows;
+        this.tileSize = tileSize;
+        this.chunksX = (cols + TileChunk.MASK) >> TileChunk.BITS;
+        this.chunksY = (rows + TileChunk.MASK) >> TileChunk.BITS;
+        this.chunks = new TileChunk[chunksX * chunksY];
+        Arrays.fill(types, TileType.EMPTY);
+    }
+
+    /**
+     * Set the position of the tile map.
+     *
+     * @param x the x coordinate
+     * @param y the y coordinate
+     * @return the updated tile map
+     */
+    public TileMap setPosition(float x, float y) {
+        this.x = x;
+        this.y = y;
+        return this;
+    }
+
+    /**
+     * Define the type and color of a tile ID.
+     *
+     * @param id    the tile ID
+     * @param type  the collision type of the tile
+     * @param color the color used to draw the tile
+     * @return the updated tile map
+     */
+    public TileMap define(int id, TileType type, Color color) {
+        if (id >= types.length) {
+            int length = Math.max(id + 1, types.length * 2);
+            int previous = types.length;
+            types = Arrays.copyOf(types, length);
+            colors = Arrays.copyOf(colors, length);
+            Arrays.fill(types, previous, length, TileType.EMPTY);
+        }
+        types[id] = type;
+        colors[id] = color;
+        return this;
+    }
+
+    /**
+     * Retrieve the color a tile ID is drawn with.
+     *
+     * @param id the tile ID
+     * @return the color, or null if the ID is empty or not defined.
+     */
+    public Color getColor(short id) {
+        return id == EMPTY || id < 0 || id >= colors.length ? null : colors[id];
+    }
+
+    /**
+     * Fill the tile map from text lines, one character per tile:
+     * '#' solid, '=' one way platform, '/' and '\' slopes, any other is empty.
+     * The IDs 1 to 4 are defined accordingly if they are not already.
+     *
+     * @param lines the level lines, from top to bottom
+     * @return the updated tile map
+     */
+    public TileMap load(String... lines) {
+        defineDefaults();
+        for (int ty = 0; ty < lines.length && ty < rows; ty++) {
+            String line = lines[ty];
+            for (int tx = 0; tx < line.length() && tx < cols; tx++) {
+                switch (line.charAt(tx)) {
+                    case '#' -> setTile(tx, ty, (short) 1);
+                    case '=' -> setTile(tx, ty, (short) 2);
+                    case '/' -> setTile(tx, ty, (short) 3);
+                    case '\\' -> setTile(tx, ty, (short) 4);
+                    default -> setTile(tx, ty, EMPTY);
+                }
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Define the IDs 1 to 4 used by {@link #load}, if they are not already:
+     * solid, one way platform, up and down slopes.
+     *
+     * @return the updated tile map
+     */
+    public TileMap defineDefaults() {
+        defineDefault(1, TileType.SOLID, Color.GRAY);
+        defineDefault(2, TileType.ONE_WAY, Color.ORANGE.darker());
+        defineDefault(3, TileType.SLOPE_UP, Color.GRAY);
+        defineDefault(4, TileType.SLOPE_DOWN, Color.GRAY);
+        return this;
+    }
+
+    private void defineDefault(int id, TileType type, Color color) {
+        if (id >= types.length || types[id] == TileType.EMPTY) {
+            define(id, type, color);
+        }
+    }
+
+    /**
+     * Retrieve the tile ID at a tile position.
+     *
+     * @param tx horizontal tile position
+     * @param ty vertical tile position
+     * @return the tile ID, {@link #EMPTY} if out of the map or not loaded.
+     */
+    public short getTile(int tx, int ty) {
+        if (tx < 0 || ty < 0 || tx >= cols || ty >= rows) {
+            return EMPTY;
+        }
+        TileChunk chunk = chunks[(ty >> TileChunk.BITS) * chunksX + (tx >> TileChunk.BITS)];
+        return chunk != null ? chunk.get(tx & TileChunk.MASK, ty & TileChunk.MASK) : EMPTY;
+    }
+
+    /**
+     * Change the tile ID at a tile position, creating the chunk if needed.
+     *
+     * @param tx horizontal tile position
+     * @param ty vertical tile position
+     * @param id the new tile ID
+     */
+    public void setTile(int tx, int ty, short id) {
+        if (tx < 0 || ty < 0 || tx >= cols || ty >= rows) {
+            return;
+        }
+        int index = (ty >> TileChunk.BITS) * chunksX + (tx >> TileChunk.BITS);
+        TileChunk chunk = chunks[index];
+        if (chunk == null) {
+            if (id == EMPTY) {
+                return;
+            }
+            chunk = chunks[index] = new TileChunk(tx >> TileChunk.BITS, ty >> TileChunk.BITS);
+        }
+        chunk.set(tx & TileChunk.MASK, ty & TileChunk.MASK, id);
+        version++;
+    }
+
+    /**
+     * Retrieve the collision type of the tile at a tile position.
+     *
+     * @param tx horizontal tile position
+     * @param ty vertical tile position
+     * @return the tile type
+     */
+    public TileType getType(int tx, int ty) {
+        short id = getTile(tx, ty);
+        return id < types.length ? types[id] : TileType.EMPTY;
+    }
+
+    /**
+     * Retrieve the chunk at a chunk grid position.
+     *
+     * @param cx horizontal chunk position
+     * @param cy vertical chunk position
+     * @return the chunk, or null if empty or not loaded.
+     */
+    public TileChunk getChunk(int cx, int cy) {
+        if (cx < 0 || cy < 0 || cx >= chunksX || cy >= chunksY) {
+            return null;
+        }
+        return chunks[cy * chunksX + cx];
+    }
+
+    /**
+     * Replace the chunk at a chunk grid position.
+     *
+     * @param cx    horizontal chunk position
+     * @param cy    vertical chunk position
+     * @param chunk the new chunk, or null to remove it.
+     */
+    public void setChunk(int cx, int cy, TileChunk chunk) {
+        if (cx >= 0 && cy >= 0 && cx < chunksX && cy < chunksY) {
+            chunks[cy * chunksX + cx] = chunk;
+            version++;
+        }
+    }
+
+    /**
+     * Convert a horizontal pixel coordinate to a tile position.
+     */
+    public int toTileX(float px) {
+        return (int) Math.floor((px - x) / tileSize);
+    }
+
+    /**
+     * Convert a vertical pixel coordinate to a tile position.
+     */
+    public int toTileY(float py) {
+        return (int) Math.floor((py - y) / tileSize);
+    }
+
+    /**
+     * Move the entity out of the tiles it has entered during its last move
+     * (dx, dy), one axis after the other. One way platforms only stop an entity
+     * falling from above them, and slopes put the entity bottom center on their
+     * floor. A solid tile under a slope is part of the slope ground, and does not
+     * block an entity walking on the slope.
+     *
+     * @param e the entity to collide.
+     */
+    public void collide(Entity e) {
+        float prevY = e.y - e.dy;
+        // horizontal move, at the previous vertical position.
+        if (e.dx != 0) {
+            int ty0 = toTileY(prevY), ty1 = toTileY(prevY + e.height - 0.001f);
+            int tx0 = toTileX(e.x), tx1 = toTileX(e.x + e.width - 0.001f);
+            boolean blocked = false;
+            for (int ty = ty0; ty <= ty1; ty++) {
+                for (int tx = tx0; tx <= tx1; tx++) {
+                    if (getType(tx, ty) == TileType.SOLID && !isSlope(getType(tx, ty - 1))) {
+                        if (e.dx > 0) {
+                            e.x = Math.min(e.x, x + tx * tileSize - e.width);
+                        } else {
+                            e.x = Math.max(e.x, x + (tx + 1) * tileSize);
+                        }
+                        blocked = true;
+                    }
+                }
+            }
+            if (blocked) {
+                e.dx = 0;
+            }
+        }
+        // vertical move.
+        int tx0 = toTileX(e.x), tx1 = toTileX(e.x + e.width - 0.001f);
+        int ty0 = toTileY(e.y), ty1 = toTileY(e.y + e.height - 0.001f);
+        float prevBottom = prevY + e.height;
+        boolean blocked = false;
+        for (int ty = ty0; ty <= ty1; ty++) {
+            float top = y + ty * tileSize;
+            for (int tx = tx0; tx <= tx1; tx++) {
+                TileType type = getType(tx, ty);
+                if (type == TileType.SOLID && !(e.dy >= 0 && isSlope(getType(tx, ty - 1)))) {
+                    if (e.dy > 0) {
+                        e.y = Math.min(e.y, top - e.height);
+                    } else if (e.dy < 0) {
+                        e.y = Math.max(e.y, top + tileSize);
+                    }
+                    blocked = true;
+                } else if (type == TileType.ONE_WAY && e.dy > 0 && prevBottom <= top + 0.001f) {
+                    e.y = Math.min(e.y, top - e.height);
+                    blocked = true;
+                }
+            }
+        }
+        if (blocked) {
+            e.dy = 0;
+        }
+        // slopes, under the bottom center of the entity, or just above it when
+        // it is walking up from one slope tile to the next one.
+        if (e.dy >= 0) {
+            float cx = e.x + e.width * 0.5f;
+            float bottom = e.y + e.height;
+            int tx = toTileX(cx);
+            int tb = toTileY(bottom);
+            for (int ty = tb - 1; ty <= tb; ty++) {
+                TileType type = getType(tx, ty);
+                if (isSlope(type)) {
+                    float local = (cx - x - tx * tileSize) / tileSize;
+                    float floor = y + (ty + 1) * tileSize
+                            - tileSize * (type == TileType.SLOPE_UP ? local : 1.0f - local);
+                    if (bottom > floor && (ty == tb || bottom - floor <= tileSize * 0.5f)) {
+                        e.y = floor - e.height;
+                        e.dy = 0;
+                    }
+                    break;
+                }
+            }
+        }
+    }
+
+    private static boolean isSlope(TileType type) {
+        return type == TileType.SLOPE_UP || type == TileType.SLOPE_DOWN;
+    }
+
+    /**
+     * Draw the tiles visible into a view area, chunk by chunk, skipping the
+     * empty chunks.
+     *
+     * @param g     the Graphics2D context to draw on.
+     * @param viewX left of the view area
+     * @param viewY top of the view area
+     * @param viewW width of the view area
+     * @param viewH height of the view area
+     */
+    public void draw(Graphics2D g, int viewX, int viewY, int viewW, int viewH) {
+        int tx0 = Math.max(0, toTileX(viewX)), tx1 = Math.min(cols - 1, toTileX(viewX + viewW));
+        int ty0 = Math.max(0, toTileY(viewY)), ty1 = Math.min(rows - 1, toTileY(viewY + viewH));
+        if (tx0 > tx1 || ty0 > ty1) {
+            return;
+        }
+        Color current = null;
+        for (int cy = ty0 >> TileChunk.BITS; cy <= ty1 >> TileChunk.BITS; cy++) {
+            for (int cx = tx0 >> TileChunk.BITS; cx <= tx1 >> TileChunk.BITS; cx++) {
+                TileChunk chunk = chunks[cy * chunksX + cx];
+                if (chunk == null) {
+                    continue;
+                }
+                int ly0 = Math.max(0, ty0 - (cy << TileChunk.BITS));
+                int ly1 = Math.min(TileChunk.MASK, ty1 - (cy << TileChunk.BITS));
+                int lx0 = Math.max(0, tx0 - (cx << TileChunk.BITS));
+                int lx1 = Math.min(TileChunk.MASK, tx1 - (cx << TileChunk.BITS));
+                for (int ly = ly0; ly <= ly1; ly++) {
+                    for (int lx = lx0; lx <= lx1; lx++) {
+                        short id = chunk.get(lx, ly);
+                        if (id == EMPTY || id >= types.length || colors[id] == null) {
+                            continue;
+                        }
+                        if (colors[id] != current) {
+                            current = colors[id];
+                            g.setColor(current);
+                        }
+                        int px = (int) x + ((cx << TileChunk.BITS) + lx) * tileSize;
+                        int py = (int) y + ((cy << TileChunk.BITS) + ly) * tileSize;
+                        drawTile(g, types[id], px, py);
+                    }
+                }
+            }
+        }
+    }
+
+    private void drawTile(Graphics2D g, TileType type, int px, int py) {
+        switch (type) {
+            case SLOPE_UP, SLOPE_DOWN -> {
+                polyX[0] = px;
+                polyX[1] = px + tileSize;
+                polyX[2] = type == TileType.SLOPE_UP ? px + tileSize : px;
+                polyY[0] = py + tileSize;
+                polyY[1] = py + tileSize;
+                polyY[2] = py;
+                g.fillPolygon(polyX, polyY, 3);
+            }
+            case ONE_WAY -> g.fillRect(px, py, tileSize, Math.max(2, tileSize / 4));
+            default -> g.fillRect(px, py, tileSize, tileSize);
+        }
+    }
+}
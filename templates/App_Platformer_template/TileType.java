@@ -0,0 +1,27 @@
+package ${PROJECT_PACKAGE_NAME};
+
+/**
+ * The collision behavior of a tile.
+ */
+public enum TileType {
+    /**
+     * No collision.
+     */
+    EMPTY,
+    /**
+     * Blocking on all sides.
+     */
+    SOLID,
+    /**
+     * Only blocking entities falling from above.
+     */
+    ONE_WAY,
+    /**
+     * Slope whose floor rises from left to right ('/').
+     */
+    SLOPE_UP,
+    /**
+     * Slope whose floor goes down from left to right ('\').
+     */
+    SLOPE_DOWN
+}
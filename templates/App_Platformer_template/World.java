@@ -2,12 +2,54 @@ package ${PROJECT_PACKAGE_NAME};
 
 import java.awt.Color;
 import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
 
 /**
  * A simple world class representing the game world boundaries.
  */
 public class World extends Entity {
     public float gravity = 0.981f;
+    /**
+     * Velocity (in pixel per frame) under which an entity is considered at rest.
+     */
+    public float sleepThreshold = 0.01f;
+    /**
+     * Number of frames an entity must stay at rest before being put to sleep.
+     */
+    public int sleepDelay = 30;
+
+    /**
+     * The spatial index used to query entities in the world.
+     */
+    public SpatialGrid index = new SpatialGrid(32);
+    /**
+     * The optional tile map of the level.
+     */
+    public TileMap tileMap;
+    private int tileMapVersion = -1;
+    /**
+     * Chunks and chunk versions the background was last rendered from.
+     */
+    private TileChunk[] drawnChunks = new TileChunk[0];
+    private int[] drawnVersions = new int[0];
+
+    /**
+     * The world drawing layers, drawn in order after the ground.
+     */
+    public List<Layer> layers = new ArrayList<>();
+    /**
+     * The static background layer: world area, ground and tiles, cached by
+     * cells of a tile chunk size around the view.
+     */
+    public final Layer background;
+    private final Rectangle paintArea = new Rectangle();
+
+    private final Deque<Entity> toWake = new ArrayDeque<>();
+    private final List<Entity> touching = new ArrayList<>();
     private Color colorGround = Color.GREEN.darker().darker();
 
     /**
@@ -20,6 +62,17 @@ public class World extends Entity {
         super("world", 0, 0, width, height);
         this.color = Color.DARK_GRAY;
         this.fillColor = Color.CYAN;
+        this.sleepable = false;
+        this.background = new Layer("background", true, g -> {
+            super.draw(g);
+            if (tileMap != null) {
+                // only the tiles of the rendered cell.
+                paintArea.setBounds((int) x, (int) y, this.width, this.height);
+                g.getClipBounds(paintArea);
+                tileMap.draw(g, paintArea.x, paintArea.y, paintArea.width, paintArea.height);
+            }
+        }).setCellSize(TileChunk.SIZE * 16);
+        this.layers.add(background);
     }
 
     /**
@@ -34,28 +87,265 @@ public class World extends Entity {
     }
 
     /**
-     * Clamp the entity's position within the world boundaries.
+     * Clamp the entity's position within the world boundaries, and stop its
+     * velocity on the blocked axis.
      * 
      * @param e the entity to clamp
      */
     public void clamp(Entity e) {
         if (e.x < this.x) {
             e.x = this.x;
+            e.dx = 0;
         } else if (e.x + e.width > this.x + this.width) {
             e.x = this.x + this.width - e.width;
+            e.dx = 0;
         }
         if (e.y < this.y) {
             e.y = this.y;
+            e.dy = 0;
         } else if (e.y + e.height > this.y + this.height) {
             e.y = this.y + this.height - e.height;
+            e.dy = 0;
+        }
+    }
+
+    /**
+     * Set the tile map of the level.
+     *
+     * @param tileMap the tile map, or null to remove it.
+     * @return the updated world
+     */
+    public World setTileMap(TileMap tileMap) {
+        this.tileMap = tileMap;
+        int count = tileMap != null ? tileMap.chunksX * tileMap.chunksY : 0;
+        drawnChunks = new TileChunk[count];
+        drawnVersions = new int[count];
+        tileMapVersion = -1;
+        if (tileMap != null) {
+            background.setCellSize(TileChunk.SIZE * tileMap.tileSize);
         }
+        background.invalidate();
+        return this;
     }
 
+    /**
+     * Set the world area to be drawn, only the background cells around it
+     * being kept in memory.
+     *
+     * @param x      left of the view
+     * @param y      top of the view
+     * @param width  width of the view
+     * @param height height of the view
+     * @return the updated world
+     */
+    public World setView(float x, float y, float width, float height) {
+        int left = (int) Math.floor(x), top = (int) Math.floor(y);
+        background.setView(left, top, (int) Math.ceil(x + width) - left + 1, (int) Math.ceil(y + height) - top + 1);
+        return this;
+    }
+
+    /**
+     * Add a drawing layer on top of the existing ones.
+     *
+     * @param layer the layer to add
+     * @return the updated world
+     */
+    public World addLayer(Layer layer) {
+        layers.add(layer);
+        return this;
+    }
+
+    /**
+     * Collide the entity against the tile map, if any. The world itself is
+     * skipped: its bounds cover the whole map.
+     *
+     * @param e the entity to collide
+     */
+    public void collide(Entity e) {
+        if (tileMap != null && e != this) {
+            tileMap.collide(e);
+        }
+    }
+
+    /**
+     * Check if the entity velocity is under the sleep threshold.
+     *
+     * @param e the entity to check
+     * @return true if the entity is at rest.
+     */
+    public boolean isResting(Entity e) {
+        return Math.abs(e.dx) < sleepThreshold && Math.abs(e.dy) < sleepThreshold;
+    }
+
+    /**
+     * Count the frames the entity stays at rest and put it to sleep once the
+     * sleep delay is reached.
+     *
+     * @param e the entity to check
+     */
+    public void updateSleepState(Entity e) {
+        if (!e.sleepable || e.sleeping) {
+            return;
+        }
+        if (isResting(e)) {
+            if (++e.restFrames >= sleepDelay) {
+                e.sleep();
+            }
+        } else {
+            e.restFrames = 0;
+        }
+    }
+
+    /**
+     * Wake up every sleeping entity touched by a moving one, and propagate the
+     * wake up to the sleeping entities they are touching, so a whole pile wakes
+     * up when one of its boxes is hit.
+     *
+     * @param entities the list of entities to process.
+     */
+    public void wakeUpTouched(List<Entity> entities) {
+        toWake.clear();
+        for (Entity e : entities) {
+            if (e != this && !e.sleeping && !e.frozen && !isResting(e)) {
+                toWake.push(e);
+            }
+        }
+        while (!toWake.isEmpty()) {
+            Entity e = toWake.pop();
+            index.queryRegion(e.x, e.y, e.width, e.height, touching);
+            for (Entity o : touching) {
+                if (o.sleeping) {
+                    o.wake();
+                    toWake.push(o);
+                }
+            }
+        }
+    }
+
+    /**
+     * Rebuild the spatial index from the current entity positions.
+     *
+     * @param entities the list of entities to index.
+     */
+    public void updateIndex(List<Entity> entities) {
+        index.resize(x, y, width, height);
+        index.clear();
+        for (Entity e : entities) {
+            if (e != this) {
+                index.insert(e);
+            }
+        }
+    }
+
+    /**
+     * Retrieve the entities overlapping or touching a rectangle.
+     *
+     * @param x      left of the region
+     * @param y      top of the region
+     * @param w      width of the region
+     * @param h      height of the region
+     * @param result the list to be filled with the found entities.
+     * @return the number of found entities.
+     */
+    public int queryRegion(float x, float y, float w, float h, List<Entity> result) {
+        return index.queryRegion(x, y, w, h, result);
+    }
+
+    /**
+     * Retrieve the entities containing a point.
+     *
+     * @param x      the point x coordinate
+     * @param y      the point y coordinate
+     * @param result the list to be filled with the found entities.
+     * @return the number of found entities.
+     */
+    public int queryPoint(float x, float y, List<Entity> result) {
+        return index.queryPoint(x, y, result);
+    }
+
+    /**
+     * Retrieve the first entity hit by a ray.
+     *
+     * @param ox          ray origin x
+     * @param oy          ray origin y
+     * @param dx          ray direction x
+     * @param dy          ray direction y
+     * @param maxDistance maximum distance to be tested
+     * @param hit         the hit to be filled.
+     * @return the hit entity, or null if none.
+     */
+    public Entity raycast(float ox, float oy, float dx, float dy, float maxDistance, SpatialGrid.RayHit hit) {
+        return index.raycast(ox, oy, dx, dy, maxDistance, hit);
+    }
+
+    /**
+     * Retrieve the first entity hit by a ray, skipping the casting entity.
+     *
+     * @param ox          ray origin x
+     * @param oy          ray origin y
+     * @param dx          ray direction x
+     * @param dy          ray direction y
+     * @param maxDistance maximum distance to be tested
+     * @param ignore      the entity to be skipped, usually the caster, or null
+     * @param hit         the hit to be filled.
+     * @return the hit entity, or null if none.
+     */
+    public Entity raycast(float ox, float oy, float dx, float dy, float maxDistance, Entity ignore,
+            SpatialGrid.RayHit hit) {
+        return index.raycast(ox, oy, dx, dy, maxDistance, ignore, hit);
+    }
+
+    /**
+     * Retrieve the k nearest entities from a point, sorted by distance.
+     *
+     * @param x      the point x coordinate
+     * @param y      the point y coordinate
+     * @param k      the maximum number of entities to retrieve
+     * @param result the list to be filled with the found entities.
+     * @return the number of found entities.
+     */
+    public int nearestK(float x, float y, int k, List<Entity> result) {
+        return index.nearestK(x, y, k, result);
+    }
+
+    /**
+     * Draw the ground below the world area, then the layers, in world
+     * coordinates.
+     *
+     * @param g the Graphics2D context to draw on.
+     */
     @Override
     public void draw(Graphics2D g) {
-        super.draw(g);
         g.setColor(colorGround);
-        g.fillRect(-this.width, this.height, this.width * 3, this.height);
+        g.fillRect((int) x - width, (int) y + height, width * 3, height);
+        background.setBounds((int) x, (int) y, width + 1, height + 1);
+        if (tileMap != null && tileMap.version != tileMapVersion) {
+            tileMapVersion = tileMap.version;
+            invalidateChangedChunks();
+        }
+        for (Layer layer : layers) {
+            layer.draw(g);
+        }
+    }
+
+    /**
+     * Render again the background cells of the chunks changed, loaded or
+     * unloaded since the last draw.
+     */
+    private void invalidateChangedChunks() {
+        int size = TileChunk.SIZE * tileMap.tileSize;
+        for (int cy = 0; cy < tileMap.chunksY; cy++) {
+            for (int cx = 0; cx < tileMap.chunksX; cx++) {
+                int i = cy * tileMap.chunksX + cx;
+                TileChunk chunk = tileMap.getChunk(cx, cy);
+                int version = chunk != null ? chunk.version : 0;
+                if (chunk != drawnChunks[i] || version != drawnVersions[i]) {
+                    drawnChunks[i] = chunk;
+                    drawnVersions[i] = version;
+                    background.invalidate((int) tileMap.x + cx * size, (int) tileMap.y + cy * size, size, size);
+                }
+            }
+        }
     }
 
 }
\ No newline at end of file
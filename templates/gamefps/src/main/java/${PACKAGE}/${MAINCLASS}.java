@@ -10,17 +10,23 @@ import java.awt.event.KeyListener;
 import java.awt.image.BufferStrategy;
 import java.time.ZonedDateTime;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Properties;
 import java.util.ResourceBundle;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import javax.swing.JFrame;
 
+import ${PACKAGE}.entity.Entity;
+import ${PACKAGE}.render.Camera3D;
+import ${PACKAGE}.render.SoftwareRenderer3D;
 import ${PACKAGE}.utils.AppMode;
 import ${PACKAGE}.utils.TextAlign;
 import ${PACKAGE}.utils.CircularQueue;
+import ${PACKAGE}.utils.TransformStack;
 
 /**
  * The main ${MAINCLASS} class for project demo008.
@@ -58,6 +64,23 @@ public class ${MAINCLASS} implements KeyListener {
 
     public JFrame window;
 
+    /**
+     * The entities drawn at each frame.
+     */
+    public List<Entity> entities = new CopyOnWriteArrayList<>();
+    /**
+     * The transform stack the entities are drawn through.
+     */
+    public TransformStack transforms = new TransformStack(32);
+    /**
+     * Draw the entities as 3D boxes with the software renderer.
+     */
+    public boolean render3d = false;
+    /**
+     * The software 3D renderer, created at the window size on first use.
+     */
+    public SoftwareRenderer3D renderer3d;
+
     /**
      * Creates a new instance of the ${MAINCLASS}.
      */
@@ -130,6 +153,10 @@ public class ${MAINCLASS} implements KeyListener {
                     mode = AppMode.valueOf(value.toUpperCase());
                     info(${MAINCLASS}.class, "read config '%s' = '%s'", key, value);
                     break;
+                case "app.render.3d":
+                    render3d = Boolean.parseBoolean(value);
+                    info(${MAINCLASS}.class, "read config '%s' = '%s'", key, value);
+                    break;
                 default:
                     warn(${MAINCLASS}.class, "Unknown config key: %s", key);
             }
@@ -204,6 +231,24 @@ public class ${MAINCLASS} implements KeyListener {
         g.clearRect(0, 0, window.getWidth(), window.getHeight());
 
         // do you drawings
+        if (render3d) {
+            if (renderer3d == null || renderer3d.width != window.getWidth() || renderer3d.height != window.getHeight()) {
+                renderer3d = new SoftwareRenderer3D(window.getWidth(), window.getHeight(),
+                        new Camera3D(60.0f, window.getHeight()).lookAtScreen(window.getWidth(), window.getHeight()));
+            }
+            renderer3d.begin();
+            for (Entity e : entities) {
+                renderer3d.drawBox(e);
+            }
+            renderer3d.end();
+            g.drawImage(renderer3d.image, 0, 0, null);
+        } else {
+            transforms.begin(g);
+            for (Entity e : entities) {
+                e.draw(transforms);
+            }
+            transforms.end();
+        }
         drawText(g, getI18n("app.message.welcome", "Welcome into this demo"),
                 (int) (window.getWidth() * 0.5), (int) (window.getHeight() * 0.5),
                 TextAlign.CENTER,
@@ -217,7 +262,8 @@ public class ${MAINCLASS} implements KeyListener {
 
         if (debug > 0) {
             drawText(g,
-                    "[ dbg:%d | elapsed:%02d | FPS:%03d ]".formatted(debug, stats.get("elapsed"), stats.get("fps")),
+                    "[ dbg:%d | elapsed:%02d | FPS:%03d | tri:%d ]".formatted(debug, stats.get("elapsed"), stats.get("fps"),
+                            render3d && renderer3d != null ? renderer3d.triangles : 0),
                     30, window.getHeight() - 20,
                     TextAlign.LEFT,
                     11.0f,
@@ -2,6 +2,7 @@ package ${PACKAGE}.entity;
 
 import ${PACKAGE}.behaviors.Behavior;
 import ${PACKAGE}.utils.Node;
+import ${PACKAGE}.utils.TransformStack;
 
 import java.awt.*;
 import java.awt.image.BufferedImage;
@@ -105,6 +106,9 @@ public class Entity extends Node<Entity> {
 
     /**
      * Draw the entity using the provided Graphics2D context.
+     * <p>
+     * This creates a new Graphics2D for each call; prefer
+     * {@link #draw(TransformStack)} when drawing many entities.
      *
      * @param g the Graphics2D context to draw on.
      */
@@ -123,15 +127,46 @@ public class Entity extends Node<Entity> {
             g2.shear(shearX, shearY);
         }
         g2.translate(-width / 2.0, -height / 2.0);
+        drawShape(g2);
+        g2.dispose();
+    }
+
+    /**
+     * Draw the entity through a transform stack, restoring the transform
+     * afterward without any allocation. An unrotated entity is only translated.
+     *
+     * @param ts the transform stack of the Graphics2D context to draw on.
+     */
+    public void draw(TransformStack ts) {
+        ts.push();
+        if (rotX == 0.0f && rotY == 0.0f && rotZ == 0.0f) {
+            ts.translate(x, y);
+        } else {
+            ts.translate(x + width / 2.0, y + height / 2.0);
+            ts.rotate(rotZ);
+            if (rotX != 0.0f || rotY != 0.0f) {
+                ts.shear(Math.tan(rotY), Math.tan(rotX));
+            }
+            ts.translate(-width / 2.0, -height / 2.0);
+        }
+        drawShape(ts.getGraphics());
+        ts.pop();
+    }
+
+    /**
+     * Draw the entity sprite, or its rectangle, at the origin of the context.
+     *
+     * @param g the Graphics2D context to draw on.
+     */
+    protected void drawShape(Graphics2D g) {
         if (sprite != null) {
-            g2.drawImage(sprite, 0, 0, width, height, null);
+            g.drawImage(sprite, 0, 0, width, height, null);
         } else {
-            g2.setColor(fillColor);
-            g2.fillRect(0, 0, width, height);
-            g2.setColor(color);
-            g2.drawRect(0, 0, width, height);
+            g.setColor(fillColor);
+            g.fillRect(0, 0, width, height);
+            g.setColor(color);
+            g.drawRect(0, 0, width, height);
         }
-        g2.dispose();
     }
 
     /**
@@ -0,0 +1,74 @@
+package ${PACKAGE}.render;
+
+/**
+ * A perspective camera for the {@link SoftwareRenderer3D}.
+ * <p>
+ * World axes follow the screen ones: x to the right, y downward and z into
+ * the screen. The camera looks toward +z, turned by its yaw (around y) and
+ * pitch (around x) angles, in radians.
+ */
+public class Camera3D {
+    public float x, y, z;
+    public float yaw = 0.0f;
+    public float pitch = 0.0f;
+    /**
+     * Distance from the eye to the projection plane, in pixels.
+     */
+    public float focal;
+    /**
+     * Points closer than this distance to the eye are not drawn.
+     */
+    public float near = 1.0f;
+
+    /**
+     * Creates a new camera.
+     *
+     * @param fov          vertical field of view, in degrees
+     * @param screenHeight height of the rendered image, in pixels.
+     */
+    public Camera3D(float fov, int screenHeight) {
+        this.focal = (float) (screenHeight * 0.5 / Math.tan(Math.toRadians(fov) * 0.5));
+    }
+
+    /**
+     * Place the camera so that the z=0 plane is seen at a 1:1 scale, each
+     * (x, y, 0) world point being drawn at the (x, y) pixel, as 2D entities are.
+     *
+     * @param screenWidth  width of the rendered image
+     * @param screenHeight height of the rendered image
+     * @return the updated camera.
+     */
+    public Camera3D lookAtScreen(int screenWidth, int screenHeight) {
+        this.x = screenWidth * 0.5f;
+        this.y = screenHeight * 0.5f;
+        this.z = -focal;
+        this.yaw = 0.0f;
+        this.pitch = 0.0f;
+        return this;
+    }
+
+    /**
+     * Transform a world point into camera space, in place.
+     *
+     * @param p      the points buffer, as x, y, z triplets
+     * @param offset offset of the point x coordinate into the buffer.
+     */
+    public void toCamera(float[] p, int offset) {
+        float px = p[offset] - x, py = p[offset + 1] - y, pz = p[offset + 2] - z;
+        if (yaw != 0.0f) {
+            float c = (float) Math.cos(-yaw), s = (float) Math.sin(-yaw);
+            float rx = px * c + pz * s;
+            pz = -px * s + pz * c;
+            px = rx;
+        }
+        if (pitch != 0.0f) {
+            float c = (float) Math.cos(-pitch), s = (float) Math.sin(-pitch);
+            float ry = py * c - pz * s;
+            pz = py * s + pz * c;
+            py = ry;
+        }
+        p[offset] = px;
+        p[offset + 1] = py;
+        p[offset + 2] = pz;
+    }
+}
@@ -0,0 +1,318 @@
+package ${PACKAGE}.render;
+
+import ${PACKAGE}.entity.Entity;
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * A software renderer drawing entities as flat shaded 3D boxes into the
+ * {@code int[]} raster of an image, with a z-buffer.
+ * <p>
+ * {@link #drawBox} transforms the 8 box corners with the entity rotation and
+ * the camera, drops the faces turned away from the eye (back-face culling) and
+ * queues the 2 triangles of each visible face with a flat shaded color.
+ * {@link #end()} then rasterizes the queued triangles: the image is split into
+ * horizontal bands filled in parallel, each band clearing and filling its own
+ * scanlines, so that threads never write the same pixels. The depth test keeps
+ * the nearest pixel whatever the drawing order.
+ * <p>
+ * Faces with a corner closer than the camera near distance are dropped rather
+ * than clipped.
+ */
+public class SoftwareRenderer3D {
+
+    // box faces, as 4 corner indexes (corner i is at x=i&1, y=(i>>1)&1, z=(i>>2)&1).
+    private static final int[][] FACES = {
+            {0, 2, 6, 4}, {1, 3, 7, 5},
+            {0, 1, 5, 4}, {2, 3, 7, 6},
+            {0, 1, 3, 2}, {4, 5, 7, 6}};
+
+    private static final int TRI_FLOATS = 9;
+
+    public final int width, height;
+    public final BufferedImage image;
+    public final Camera3D camera;
+
+    public int background = 0x000000;
+    /**
+     * Light received by the faces turned away from the light.
+     */
+    public float ambient = 0.3f;
+    /**
+     * Number of bands rasterized in parallel.
+     */
+    public int bands = Runtime.getRuntime().availableProcessors() * 2;
+
+    /**
+     * Number of triangles rasterized by the last frame.
+     */
+    public int triangles = 0;
+    /**
+     * Number of box faces dropped by the last frame.
+     */
+    public int culledFaces = 0;
+
+    private final int[] pixels;
+    // 1/z of the drawn pixels, 0 being infinitely far.
+    private final float[] depth;
+
+    private float lightX = -0.3f, lightY = -0.5f, lightZ = -0.8f;
+
+    private float[] tris = new float[TRI_FLOATS * 1024];
+    private int[] triColors = new int[1024];
+    private int triCount = 0;
+
+    private final float[] corners = new float[24];
+    private final float[] projected = new float[24];
+
+    /**
+     * Creates a new renderer.
+     *
+     * @param width  image width
+     * @param height image height
+     * @param camera the camera the scene is seen from.
+     */
+    public SoftwareRenderer3D(int width, int height, Camera3D camera) {
+        this.width = width;
+        this.height = height;
+        this.camera = camera;
+        this.image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        this.pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        this.depth = new float[width * height];
+        setLight(lightX, lightY, lightZ);
+    }
+
+    /**
+     * Set the direction toward the light, in camera space.
+     *
+     * @param x direction x
+     * @param y direction y
+     * @param z direction z
+     */
+    public void setLight(float x, float y, float z) {
+        float len = (float) Math.sqrt(x * x + y * y + z * z);
+        lightX = x / len;
+        lightY = y / len;
+        lightZ = z / len;
+    }
+
+    /**
+     * Start a new frame.
+     */
+    public void begin() {
+        triCount = 0;
+        culledFaces = 0;
+    }
+
+    /**
+     * Queue an entity as a box at its position, size, depth and rotation.
+     *
+     * @param e the entity to draw.
+     */
+    public void drawBox(Entity e) {
+        Color c = e.fillColor != null ? e.fillColor : e.color;
+        drawBox(e.x, e.y, e.z, e.width, e.height, e.depth,
+                e.getRotX(), e.getRotY(), e.getRotZ(),
+                c != null ? c.getRGB() : 0xFFFFFF);
+    }
+
+    /**
+     * Queue a box rotated around its center.
+     *
+     * @param x     box left
+     * @param y     box top
+     * @param z     box front
+     * @param w     box width
+     * @param h     box height
+     * @param d     box depth
+     * @param rotX  rotation around the x axis, in radians
+     * @param rotY  rotation around the y axis, in radians
+     * @param rotZ  rotation around the z axis, in radians
+     * @param color the box RGB color.
+     */
+    public void drawBox(float x, float y, float z, float w, float h, float d,
+            float rotX, float rotY, float rotZ, int color) {
+        float cx = x + w * 0.5f, cy = y + h * 0.5f, cz = z + d * 0.5f;
+        float sx = (float) Math.sin(rotX), cxr = (float) Math.cos(rotX);
+        float sy = (float) Math.sin(rotY), cyr = (float) Math.cos(rotY);
+        float sz = (float) Math.sin(rotZ), czr = (float) Math.cos(rotZ);
+        for (int i = 0; i < 8; i++) {
+            float px = ((i & 1) - 0.5f) * w;
+            float py = (((i >> 1) & 1) - 0.5f) * h;
+            float pz = (((i >> 2) & 1) - 0.5f) * d;
+            // rotate around x, then y, then z.
+            float t = py * cxr - pz * sx;
+            pz = py * sx + pz * cxr;
+            py = t;
+            t = px * cyr + pz * sy;
+            pz = -px * sy + pz * cyr;
+            px = t;
+            t = px * czr - py * sz;
+            py = px * sz + py * czr;
+            px = t;
+            int o = i * 3;
+            corners[o] = cx + px;
+            corners[o + 1] = cy + py;
+            corners[o + 2] = cz + pz;
+            camera.toCamera(corners, o);
+            float iz = corners[o + 2] >= camera.near ? 1.0f / corners[o + 2] : 0.0f;
+            projected[o] = width * 0.5f + camera.focal * corners[o] * iz;
+            projected[o + 1] = height * 0.5f + camera.focal * corners[o + 1] * iz;
+            projected[o + 2] = iz;
+        }
+        // box center in camera space, to orient the face normals outward.
+        float bx = 0, by = 0, bz = 0;
+        for (int i = 0; i < 8; i++) {
+            bx += corners[i * 3];
+            by += corners[i * 3 + 1];
+            bz += corners[i * 3 + 2];
+        }
+        bx *= 0.125f;
+        by *= 0.125f;
+        bz *= 0.125f;
+        int r = (color >> 16) & 0xFF, g = (color >> 8) & 0xFF, b = color & 0xFF;
+        for (int[] face : FACES) {
+            float fx = 0, fy = 0, fz = 0;
+            boolean behind = false;
+            for (int k = 0; k < 4; k++) {
+                int o = face[k] * 3;
+                fx += corners[o];
+                fy += corners[o + 1];
+                fz += corners[o + 2];
+                behind |= projected[o + 2] == 0.0f;
+            }
+            fx *= 0.25f;
+            fy *= 0.25f;
+            fz *= 0.25f;
+            float nx = fx - bx, ny = fy - by, nz = fz - bz;
+            // the face is seen from the inside: drop it.
+            if (behind || nx * fx + ny * fy + nz * fz >= 0) {
+                culledFaces++;
+                continue;
+            }
+            float len = (float) Math.sqrt(nx * nx + ny * ny + nz * nz);
+            float light = len > 0 ? (nx * lightX + ny * lightY + nz * lightZ) / len : 1.0f;
+            float shade = ambient + (1.0f - ambient) * Math.max(0.0f, light);
+            int shaded = ((int) (r * shade) << 16) | ((int) (g * shade) << 8) | (int) (b * shade);
+            addTriangle(face[0], face[1], face[2], shaded);
+            addTriangle(face[0], face[2], face[3], shaded);
+        }
+    }
+
+    /**
+     * Rasterize the queued triangles into the image.
+     */
+    public void end() {
+        triangles = triCount;
+        int bandHeight = (height + bands - 1) / bands;
+        IntStream.range(0, bands).parallel().forEach(band -> {
+            int y0 = band * bandHeight, y1 = Math.min(height, y0 + bandHeight);
+            if (y0 < y1) {
+                Arrays.fill(pixels, y0 * width, y1 * width, background);
+                Arrays.fill(depth, y0 * width, y1 * width, 0.0f);
+                for (int t = 0; t < triCount; t++) {
+                    rasterize(t, y0, y1);
+                }
+            }
+        });
+    }
+
+    private void addTriangle(int a, int b, int c, int color) {
+        if (triCount == triColors.length) {
+            tris = Arrays.copyOf(tris, tris.length * 2);
+            triColors = Arrays.copyOf(triColors, triColors.length * 2);
+        }
+        int o = triCount * TRI_FLOATS;
+        System.arraycopy(projected, a * 3, tris, o, 3);
+        System.arraycopy(projected, b * 3, tris, o + 3, 3);
+        System.arraycopy(projected, c * 3, tris, o + 6, 3);
+        triColors[triCount++] = color;
+    }
+
+    /**
+     * Fill the scanlines of a triangle between y0 (included) and y1 (excluded),
+     * with edge functions evaluated at the pixel centers.
+     */
+    private void rasterize(int t, int y0, int y1) {
+        int o = t * TRI_FLOATS;
+        float x0 = tris[o], ya = tris[o + 1], z0 = tris[o + 2];
+        float x1 = tris[o + 3], yb = tris[o + 4], z1 = tris[o + 5];
+        float x2 = tris[o + 6], yc = tris[o + 7], z2 = tris[o + 8];
+        int minY = Math.max(y0, (int) Math.floor(Math.min(ya, Math.min(yb, yc))));
+        int maxY = Math.min(y1 - 1, (int) Math.ceil(Math.max(ya, Math.max(yb, yc))));
+        if (minY > maxY) {
+            return;
+        }
+        int minX = Math.max(0, (int) Math.floor(Math.min(x0, Math.min(x1, x2))));
+        int maxX = Math.min(width - 1, (int) Math.ceil(Math.max(x0, Math.max(x1, x2))));
+        if (minX > maxX) {
+            return;
+        }
+        float area = (x1 - x0) * (yc - ya) - (yb - ya) * (x2 - x0);
+        if (area == 0.0f) {
+            return;
+        }
+        if (area < 0) {
+            // make the winding counter-clockwise, swapping vertices 1 and 2.
+            float tx = x1, ty = yb, tz = z1;
+            x1 = x2;
+            yb = yc;
+            z1 = z2;
+            x2 = tx;
+            yc = ty;
+            z2 = tz;
+            area = -area;
+        }
+        float invArea = 1.0f / area;
+        int color = triColors[t];
+        // edge functions and depth steps along x.
+        float a0 = yb - yc, a1 = yc - ya, a2 = ya - yb;
+        float dz = (a0 * z0 + a1 * z1 + a2 * z2) * invArea;
+        float px = minX + 0.5f;
+        for (int y = minY; y <= maxY; y++) {
+            float py = y + 0.5f;
+            float w0 = (x2 - x1) * (py - yb) - (yc - yb) * (px - x1);
+            float w1 = (x0 - x2) * (py - yc) - (ya - yc) * (px - x2);
+            float w2 = (x1 - x0) * (py - ya) - (yb - ya) * (px - x0);
+            // the span of the scanline where the 3 edge functions are positive.
+            float lo = 0, hi = maxX - minX;
+            if (a0 > 0) {
+                lo = Math.max(lo, -w0 / a0);
+            } else if (a0 < 0) {
+                hi = Math.min(hi, w0 / -a0);
+            } else if (w0 < 0) {
+                continue;
+            }
+            if (a1 > 0) {
+                lo = Math.max(lo, -w1 / a1);
+            } else if (a1 < 0) {
+                hi = Math.min(hi, w1 / -a1);
+            } else if (w1 < 0) {
+                continue;
+            }
+            if (a2 > 0) {
+                lo = Math.max(lo, -w2 / a2);
+            } else if (a2 < 0) {
+                hi = Math.min(hi, w2 / -a2);
+            } else if (w2 < 0) {
+                continue;
+            }
+            if (lo > hi) {
+                continue;
+            }
+            int start = (int) Math.ceil(lo), end = (int) Math.floor(hi);
+            float iz = (w0 * z0 + w1 * z1 + w2 * z2) * invArea + dz * start;
+            int index = y * width + minX + start;
+            for (int k = start; k <= end; k++, index++, iz += dz) {
+                if (iz > depth[index]) {
+                    depth[index] = iz;
+                    pixels[index] = color;
+                }
+            }
+        }
+    }
+}
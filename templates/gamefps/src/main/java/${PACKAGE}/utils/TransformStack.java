@@ -0,0 +1,108 @@
+package ${PACKAGE}.utils;
+
+import java.awt.Graphics2D;
+import java.awt.geom.AffineTransform;
+
+/**
+ * A stack of transforms applied to a Graphics2D context, reusing preallocated
+ * {@link AffineTransform} instances.
+ * <p>
+ * {@link #push()} saves the current transform into the next slot of the stack
+ * and {@link #pop()} restores it explicitly, so that drawing an entity with its
+ * own transform does not need to create and dispose a new Graphics2D.
+ */
+public class TransformStack {
+    private final AffineTransform[] stack;
+    private int top = 0;
+    private Graphics2D g;
+
+    /**
+     * Creates a new stack.
+     *
+     * @param depth the maximum number of nested {@link #push()}.
+     */
+    public TransformStack(int depth) {
+        stack = new AffineTransform[depth + 1];
+        for (int i = 0; i < stack.length; i++) {
+            stack[i] = new AffineTransform();
+        }
+    }
+
+    /**
+     * Start using the stack on a Graphics2D context, its current transform
+     * being the bottom of the stack.
+     *
+     * @param g the Graphics2D context to draw on.
+     * @return the stack.
+     */
+    public TransformStack begin(Graphics2D g) {
+        this.g = g;
+        this.top = 0;
+        stack[0].setTransform(g.getTransform());
+        return this;
+    }
+
+    /**
+     * Restore the transform the context had at {@link #begin(Graphics2D)}.
+     */
+    public void end() {
+        top = 0;
+        g.setTransform(stack[0]);
+        g = null;
+    }
+
+    /**
+     * Save the current transform.
+     */
+    public void push() {
+        if (top + 1 >= stack.length) {
+            throw new IllegalStateException("Transform stack overflow (depth %d)".formatted(stack.length - 1));
+        }
+        stack[top + 1].setTransform(stack[top]);
+        top++;
+    }
+
+    /**
+     * Restore the last saved transform.
+     */
+    public void pop() {
+        if (top == 0) {
+            throw new IllegalStateException("Transform stack underflow");
+        }
+        top--;
+        g.setTransform(stack[top]);
+    }
+
+    public void translate(double tx, double ty) {
+        stack[top].translate(tx, ty);
+        g.setTransform(stack[top]);
+    }
+
+    public void rotate(double theta) {
+        stack[top].rotate(theta);
+        g.setTransform(stack[top]);
+    }
+
+    public void shear(double shx, double shy) {
+        stack[top].shear(shx, shy);
+        g.setTransform(stack[top]);
+    }
+
+    /**
+     * Retrieve the Graphics2D context the stack is applied to.
+     *
+     * @return the current graphics context.
+     */
+    public Graphics2D getGraphics() {
+        return g;
+    }
+
+    /**
+     * Retrieve the current depth of the stack.
+     *
+     * @return the number of saved transforms.
+     */
+    public int getDepth() {
+        return top;
+    }
+}
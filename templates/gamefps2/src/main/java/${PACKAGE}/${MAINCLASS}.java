@@ -1,18 +1,35 @@
 package ${PACKAGE};
 
 
+import java.awt.BasicStroke;
 import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.Font;
 import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.Rectangle;
 import java.awt.RenderingHints;
+import java.awt.Shape;
+import java.awt.Stroke;
+import java.awt.Transparency;
+import java.awt.font.FontRenderContext;
+import java.awt.font.GlyphVector;
+import java.awt.geom.AffineTransform;
 import java.awt.event.KeyEvent;
 import java.awt.event.KeyListener;
-import java.awt.image.BufferStrategy;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.ZonedDateTime;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+import javax.imageio.ImageIO;
 import javax.swing.JFrame;
 
 /**
@@ -136,11 +153,26 @@ public class App implements KeyListener {
 
         public int width = 0, height = 0;
         public Color color = Color.BLACK, fillColor = Color.BLUE;
+        /**
+         * The drawing layer, higher layers being drawn over lower ones.
+         */
+        public int layer = 0;
 
         public List<Entity<?>> children = new ArrayList<>();
 
         public boolean active = true;
 
+        /**
+         * Screen area covered by the entity at its last draw in dirty rendering
+         * mode, empty if it was not drawn.
+         */
+        public Rectangle drawnBounds = new Rectangle();
+        /**
+         * Set when a change other than a move requires the entity to be drawn
+         * again in dirty rendering mode.
+         */
+        public boolean changed = true;
+
         public Entity() {
         }
 
@@ -165,69 +197,2498 @@ public class App implements KeyListener {
             return (T) this;
         }
 
-        public T setSize(int w, int h) {
-            this.width = w;
-            this.height = h;
-            return (T) this;
+        public T setSize(int w, int h) {
+            this.width = w;
+            this.height = h;
+            this.changed = true;
+            return (T) this;
+        }
+
+        public T setColor(Color c) {
+            this.color = c;
+            this.changed = true;
+            return (T) this;
+        }
+
+        public T setFillColor(Color fc) {
+            this.fillColor = fc;
+            this.changed = true;
+            return (T) this;
+        }
+
+        public T setActive(boolean a) {
+            this.active = a;
+            this.changed = true;
+            return (T) this;
+        }
+
+        public T setMass(float m) {
+            this.mass = m;
+            return (T) this;
+        }
+
+        public T setLayer(int l) {
+            this.layer = l;
+            this.changed = true;
+            return (T) this;
+        }
+
+        public boolean isIntersect(Entity<?> other) {
+            // Axis-Aligned Bounding Box (AABB) intersection test
+            return x < other.x + other.width
+                    && x + width > other.x
+                    && y < other.y + other.height
+                    && y + height > other.y;
+        }
+
+        public boolean isActive() {
+            return this.active;
+        }
+
+        /**
+         * Check if the entity, including its 1 pixel border, is in a view area.
+         *
+         * @param view the view area, in world coordinates
+         * @return true if at least a part of the entity is in the view.
+         */
+        public boolean isInView(Rectangle view) {
+            return x <= view.x + view.width
+                    && x + width + 1 >= view.x
+                    && y <= view.y + view.height
+                    && y + height + 1 >= view.y;
+        }
+
+        public void update(long elapsed) {
+            x += vx * (elapsed / 1000f);
+            y += vy * (elapsed / 1000f);
+        }
+
+        public void draw(Graphics2D g) {
+            if (fillColor != null) {
+                g.setColor(fillColor);
+                g.fillRect((int) (x + 0.5f), (int) (y + 0.5f), width, height);
+            }
+            if (color != null) {
+                g.setColor(color);
+                g.drawRect((int) (x + 0.5f), (int) (y + 0.5f), width, height);
+            }
+        }
+
+        /**
+         * Record the entity drawing commands into a display list.
+         *
+         * @param dl the display list
+         */
+        public void record(DisplayList dl) {
+            if (fillColor != null) {
+                dl.fillRect(layer, fillColor, (int) (x + 0.5f), (int) (y + 0.5f), width, height);
+            }
+            if (color != null) {
+                dl.drawRect(layer, color, (int) (x + 0.5f), (int) (y + 0.5f), width, height);
+            }
+        }
+
+        /**
+         * Submit the entity drawing commands to a render queue.
+         *
+         * @param q the render queue
+         */
+        public void draw(RenderQueue q) {
+            if (fillColor != null) {
+                q.fillRect(layer, fillColor, (int) (x + 0.5f), (int) (y + 0.5f), width, height);
+            }
+            if (color != null) {
+                q.drawRect(layer, color, null, (int) (x + 0.5f), (int) (y + 0.5f), width, height);
+            }
+        }
+
+    }
+
+    /**
+     * Represents a game object with properties such as position, velocity, size, color, and active state.
+     * This class extends the Entity class and is intended to be a base model for visual and interactive game objects.
+     */
+    public static class GameObject extends Entity<GameObject> {
+        public GameObject(String name) {
+            super(name);
+        }
+    }
+
+    /**
+     * A queue of drawing commands, sorted by layer and graphics state before
+     * being executed.
+     *
+     * <p>Commands are submitted with their layer, then {@link #flush} sorts them
+     * by layer, command type, stroke and color (or image), and executes them
+     * while only changing the Graphics2D state when it differs from the previous
+     * command. The painter's order is kept: each command gets a level above the
+     * one of every previous command of another state it overlaps, found through
+     * a grid of cells, and the sort only groups states inside a level. Commands
+     * whose bounds are not known (shapes, transformed or thick strokes) are
+     * barriers no command is moved across. Command objects are pooled and
+     * reused from frame to frame.
+     */
+    public static class RenderQueue {
+        public static final int FILL_RECT = 0;
+        public static final int DRAW_RECT = 1;
+        public static final int FILL_SHAPE = 2;
+        public static final int DRAW_SHAPE = 3;
+        public static final int IMAGE = 4;
+        /**
+         * Maximum number of commands between two flushes.
+         */
+        public static final int MAX_COMMANDS = (1 << 20) - 1;
+
+        // sort key: layer (10 bits) | level (20 bits) | state (13 bits) | index (20 bits).
+        private static final int LAYER_OFFSET = 512;
+        private static final int MAX_STATES = 1 << 13;
+        private static final int CELL_BITS = 5;
+        private static final int CELLS = 4096;
+        /**
+         * Above this number of commands in a cell, or of cells covered by a
+         * command, the overlap test is replaced by the highest level of the cell
+         * or by a barrier.
+         */
+        private static final int MAX_CELL_COMMANDS = 32;
+        private static final int MAX_COVERED_CELLS = 64;
+
+        private static class Command {
+            int type;
+            int layer, level, state;
+            int x0, y0, x1, y1;
+            int x, y, w, h;
+            Color color;
+            Stroke stroke;
+            Shape shape;
+            Image image;
+            AffineTransform transform;
+        }
+
+        /**
+         * Number of commands executed by the last flush.
+         */
+        public int executed = 0;
+        /**
+         * Number of Graphics2D state changes done by the last flush.
+         */
+        public int stateChanges = 0;
+        /**
+         * Duration of the last flush, in nanoseconds.
+         */
+        public long flushTime = 0;
+
+        private Command[] commands = new Command[256];
+        private long[] order = new long[256];
+        private int count = 0;
+        private AffineTransform transform;
+        private final List<Stroke> strokes = new ArrayList<>();
+
+        // state of a command (type, stroke and paint) to a small id, open addressing.
+        private final long[] stateKeys = new long[MAX_STATES * 2];
+        private final int[] stateIds = new int[MAX_STATES * 2];
+        private int stateCount = 0;
+
+        // commands per cell, chained through cellNext; cells are hashed from their position.
+        private final int[] cellHead = new int[CELLS];
+        private final int[] cellCount = new int[CELLS];
+        private final int[] cellMaxLevel = new int[CELLS];
+        private int[] cellNext = new int[1024];
+        private int[] cellCommand = new int[1024];
+        private int cellEntries = 0;
+        // the level under which no command can be moved, raised by barriers.
+        private int barrierLevel = 0;
+        private int maxLevel = 0;
+
+        public RenderQueue() {
+            Arrays.fill(cellHead, -1);
+        }
+
+        /**
+         * Set the transform applied to the next submitted commands, on top of
+         * the transform of the flushed Graphics2D.
+         *
+         * @param t the transform, or null for none.
+         * @return the updated queue.
+         */
+        public RenderQueue setTransform(AffineTransform t) {
+            this.transform = t;
+            return this;
+        }
+
+        public void fillRect(int layer, Color c, int x, int y, int w, int h) {
+            Command cmd = next(layer, FILL_RECT, null, c.getRGB(), x, y, x + w, y + h);
+            cmd.color = c;
+            cmd.x = x;
+            cmd.y = y;
+            cmd.w = w;
+            cmd.h = h;
+        }
+
+        public void drawRect(int layer, Color c, Stroke s, int x, int y, int w, int h) {
+            // the border covers the right and bottom pixels too.
+            Command cmd = next(layer, DRAW_RECT, s, c.getRGB(), x, y, x + w + 1, y + h + 1);
+            cmd.color = c;
+            cmd.x = x;
+            cmd.y = y;
+            cmd.w = w;
+            cmd.h = h;
+        }
+
+        public void fill(int layer, Color c, Shape shape) {
+            Command cmd = next(layer, FILL_SHAPE, null, c.getRGB(), 0, 0, -1, -1);
+            cmd.color = c;
+            cmd.shape = shape;
+        }
+
+        public void draw(int layer, Color c, Stroke s, Shape shape) {
+            Command cmd = next(layer, DRAW_SHAPE, s, c.getRGB(), 0, 0, -1, -1);
+            cmd.color = c;
+            cmd.shape = shape;
+        }
+
+        public void drawImage(int layer, Image img, int x, int y, int w, int h) {
+            Command cmd = next(layer, IMAGE, null, System.identityHashCode(img), x, y, x + w, y + h);
+            cmd.image = img;
+            cmd.x = x;
+            cmd.y = y;
+            cmd.w = w;
+            cmd.h = h;
+        }
+
+        /**
+         * Retrieve the number of commands waiting for the next flush.
+         *
+         * @return the number of commands.
+         */
+        public int size() {
+            return count;
+        }
+
+        /**
+         * Sort and execute the submitted commands, then empty the queue.
+         *
+         * @param g the Graphics2D context to draw on.
+         */
+        public void flush(Graphics2D g) {
+            long start = System.nanoTime();
+            for (int i = 0; i < count; i++) {
+                Command cmd = commands[i];
+                order[i] = ((long) cmd.layer << 53) | ((long) cmd.level << 33) | ((long) cmd.state << 20) | i;
+            }
+            Arrays.sort(order, 0, count);
+            AffineTransform base = g.getTransform();
+            Stroke baseStroke = g.getStroke();
+            Color color = null;
+            Stroke stroke = baseStroke;
+            AffineTransform current = null;
+            stateChanges = 0;
+            for (int i = 0; i < count; i++) {
+                Command cmd = commands[(int) (order[i] & MAX_COMMANDS)];
+                if (cmd.transform != current) {
+                    g.setTransform(base);
+                    if (cmd.transform != null) {
+                        g.transform(cmd.transform);
+                    }
+                    current = cmd.transform;
+                    stateChanges++;
+                }
+                Stroke s = cmd.stroke != null ? cmd.stroke : baseStroke;
+                if (s != stroke) {
+                    g.setStroke(s);
+                    stroke = s;
+                    stateChanges++;
+                }
+                if (cmd.color != null && !cmd.color.equals(color)) {
+                    g.setColor(cmd.color);
+                    color = cmd.color;
+                    stateChanges++;
+                }
+                switch (cmd.type) {
+                    case FILL_RECT -> g.fillRect(cmd.x, cmd.y, cmd.w, cmd.h);
+                    case DRAW_RECT -> g.drawRect(cmd.x, cmd.y, cmd.w, cmd.h);
+                    case FILL_SHAPE -> g.fill(cmd.shape);
+                    case DRAW_SHAPE -> g.draw(cmd.shape);
+                    case IMAGE -> g.drawImage(cmd.image, cmd.x, cmd.y, cmd.w, cmd.h, null);
+                    default -> {
+                    }
+                }
+                // release references to the drawn objects.
+                cmd.color = null;
+                cmd.stroke = null;
+                cmd.shape = null;
+                cmd.image = null;
+                cmd.transform = null;
+            }
+            if (current != null) {
+                g.setTransform(base);
+            }
+            g.setStroke(baseStroke);
+            executed = count;
+            count = 0;
+            resetLevels();
+            flushTime = System.nanoTime() - start;
+        }
+
+        /**
+         * Allocate the next command and compute its sort state and level.
+         *
+         * @param x0 left of the command bounds, in submission coordinates
+         * @param y0 top of the command bounds
+         * @param x1 right of the command bounds (excluded), lower than x0 when
+         *           the bounds are not known
+         * @param y1 bottom of the command bounds (excluded)
+         */
+        private Command next(int layer, int type, Stroke s, int paint, int x0, int y0, int x1, int y1) {
+            if (count == MAX_COMMANDS) {
+                throw new IllegalStateException("Render queue full, flush it before submitting more commands");
+            }
+            if (count == commands.length) {
+                commands = Arrays.copyOf(commands, count * 2);
+                order = new long[count * 2];
+            }
+            Command cmd = commands[count];
+            if (cmd == null) {
+                cmd = commands[count] = new Command();
+            }
+            int index = count++;
+            int strokeIndex = 0;
+            if (s != null) {
+                strokeIndex = strokes.indexOf(s) + 1;
+                if (strokeIndex == 0 && strokes.size() < 255) {
+                    strokes.add(s);
+                    strokeIndex = strokes.size();
+                }
+            }
+            cmd.type = type;
+            cmd.layer = Math.max(-LAYER_OFFSET, Math.min(LAYER_OFFSET - 1, layer)) + LAYER_OFFSET;
+            cmd.state = stateId(((long) type << 40) | ((long) (strokeIndex & 0xFF) << 32) | (paint & 0xFFFFFFFFL));
+            cmd.stroke = s;
+            cmd.transform = transform;
+            // the bounds of thick strokes and transformed commands are not known.
+            boolean bounded = x1 >= x0 && transform == null
+                    && (s == null || (s instanceof BasicStroke bs && bs.getLineWidth() <= 1));
+            cmd.x0 = x0;
+            cmd.y0 = y0;
+            cmd.x1 = x1;
+            cmd.y1 = y1;
+            cmd.level = bounded ? placeInCells(cmd, index) : barrier();
+            return cmd;
+        }
+
+        private int stateId(long key) {
+            int mask = stateKeys.length - 1;
+            int slot = (int) (key ^ (key >>> 29)) * 0x9E3779B9 & mask;
+            // keys are stored plus one, 0 marking a free slot.
+            while (stateKeys[slot] != 0) {
+                if (stateKeys[slot] == key + 1) {
+                    return stateIds[slot];
+                }
+                slot = (slot + 1) & mask;
+            }
+            if (stateCount == MAX_STATES - 1) {
+                // out of ids: the last one is shared, only batching is lost.
+                return stateCount;
+            }
+            stateKeys[slot] = key + 1;
+            stateIds[slot] = stateCount;
+            return stateCount++;
+        }
+
+        /**
+         * Compute the level of a bounded command from the commands it overlaps,
+         * then register it into the cells it covers.
+         */
+        private int placeInCells(Command cmd, int index) {
+            int cx0 = cmd.x0 >> CELL_BITS, cx1 = (cmd.x1 - 1) >> CELL_BITS;
+            int cy0 = cmd.y0 >> CELL_BITS, cy1 = (cmd.y1 - 1) >> CELL_BITS;
+            if ((long) (cx1 - cx0 + 1) * (cy1 - cy0 + 1) > MAX_COVERED_CELLS) {
+                return barrier();
+            }
+            int level = barrierLevel;
+            for (int cy = cy0; cy <= cy1; cy++) {
+                for (int cx = cx0; cx <= cx1; cx++) {
+                    int cell = cellOf(cx, cy);
+                    if (cellCount[cell] > MAX_CELL_COMMANDS) {
+                        level = Math.max(level, cellMaxLevel[cell] + 1);
+                        continue;
+                    }
+                    for (int e = cellHead[cell]; e >= 0; e = cellNext[e]) {
+                        Command o = commands[cellCommand[e]];
+                        if (o.layer == cmd.layer && o.x0 < cmd.x1 && cmd.x0 < o.x1 && o.y0 < cmd.y1 && cmd.y0 < o.y1) {
+                            // a same state command may share the level, the index keeping their order.
+                            level = Math.max(level, o.state == cmd.state ? o.level : o.level + 1);
+                        }
+                    }
+                }
+            }
+            for (int cy = cy0; cy <= cy1; cy++) {
+                for (int cx = cx0; cx <= cx1; cx++) {
+                    int cell = cellOf(cx, cy);
+                    cellMaxLevel[cell] = Math.max(cellMaxLevel[cell], level);
+                    if (cellCount[cell]++ >= MAX_CELL_COMMANDS) {
+                        continue;
+                    }
+                    if (cellEntries == cellNext.length) {
+                        cellNext = Arrays.copyOf(cellNext, cellEntries * 2);
+                        cellCommand = Arrays.copyOf(cellCommand, cellEntries * 2);
+                    }
+                    cellCommand[cellEntries] = index;
+                    cellNext[cellEntries] = cellHead[cell];
+                    cellHead[cell] = cellEntries++;
+                }
+            }
+            maxLevel = Math.max(maxLevel, level);
+            return level;
+        }
+
+        /**
+         * Place a command over every previous one, and every next one over it.
+         */
+        private int barrier() {
+            int level = maxLevel + 1;
+            maxLevel = level;
+            barrierLevel = level + 1;
+            return level;
+        }
+
+        private static int cellOf(int cx, int cy) {
+            // collisions only add commands to be tested.
+            return (cx * 73856093 ^ cy * 19349663) & (CELLS - 1);
+        }
+
+        private void resetLevels() {
+            Arrays.fill(cellHead, -1);
+            Arrays.fill(cellCount, 0);
+            Arrays.fill(cellMaxLevel, 0);
+            cellEntries = 0;
+            barrierLevel = 0;
+            maxLevel = 0;
+            if (stateCount > MAX_STATES / 2) {
+                // ids only have to be stable during a flush.
+                Arrays.fill(stateKeys, 0);
+                stateCount = 0;
+            }
+        }
+    }
+
+    /**
+     * A display list of primitive drawing commands, recorded by the update phase
+     * and replayed by the render phase.
+     *
+     * <p>Commands are encoded into growable {@code int[]} (operation, layer and
+     * paint index) and {@code float[]} (x, y, width, height) buffers, reused from
+     * frame to frame. Colors and images are referenced through an index into a
+     * paint table kept across frames. A recorded list is a frozen copy of the
+     * frame: replaying it does not read any entity, so it can be done on another
+     * thread while the next frame is recorded into another list. The particles
+     * are recorded as a {@link ParticleSystem.Snapshot} of their arrays, for the
+     * same reason.
+     */
+    public static class DisplayList {
+        public static final int FILL_RECT = 0;
+        public static final int DRAW_RECT = 1;
+        public static final int IMAGE = 2;
+
+        private static final int INTS = 3;
+        private static final int FLOATS = 4;
+        private static final int MAX_PAINTS = 4096;
+
+        private int[] ops = new int[INTS * 256];
+        private float[] coords = new float[FLOATS * 256];
+        private int count = 0;
+
+        private final List<Object> paints = new ArrayList<>();
+        private final IdentityHashMap<Object, Integer> paintIndex = new IdentityHashMap<>();
+
+        /**
+         * The particles of the recorded frame.
+         */
+        public final ParticleSystem.Snapshot particles = new ParticleSystem.Snapshot();
+
+        /**
+         * Remove all the recorded commands.
+         */
+        public void reset() {
+            count = 0;
+            if (paints.size() > MAX_PAINTS) {
+                // paints are not reused, do not keep them forever.
+                paints.clear();
+                paintIndex.clear();
+            }
+        }
+
+        public void fillRect(int layer, Color c, float x, float y, float w, float h) {
+            add(FILL_RECT, layer, c, x, y, w, h);
+        }
+
+        public void drawRect(int layer, Color c, float x, float y, float w, float h) {
+            add(DRAW_RECT, layer, c, x, y, w, h);
+        }
+
+        public void drawImage(int layer, Image img, float x, float y, float w, float h) {
+            add(IMAGE, layer, img, x, y, w, h);
+        }
+
+        /**
+         * Retrieve the number of recorded commands.
+         *
+         * @return the number of commands.
+         */
+        public int size() {
+            return count;
+        }
+
+        /**
+         * Replay the commands intersecting an area into a render queue.
+         *
+         * @param q    the render queue
+         * @param area the area to be drawn, null for no culling.
+         * @return the number of replayed commands.
+         */
+        public int replay(RenderQueue q, Rectangle area) {
+            int replayed = 0;
+            for (int i = 0; i < count; i++) {
+                int o = i * INTS, f = i * FLOATS;
+                if (area != null && !intersects(f, area)) {
+                    continue;
+                }
+                int x = (int) coords[f], y = (int) coords[f + 1], w = (int) coords[f + 2], h = (int) coords[f + 3];
+                Object paint = paints.get(ops[o + 2]);
+                switch (ops[o]) {
+                    case FILL_RECT -> q.fillRect(ops[o + 1], (Color) paint, x, y, w, h);
+                    case DRAW_RECT -> q.drawRect(ops[o + 1], (Color) paint, null, x, y, w, h);
+                    case IMAGE -> q.drawImage(ops[o + 1], (Image) paint, x, y, w, h);
+                    default -> {
+                    }
+                }
+                replayed++;
+            }
+            return replayed;
+        }
+
+        /**
+         * Replay the commands intersecting an area directly on a Graphics2D
+         * context, in recording order.
+         *
+         * @param g    the Graphics2D context to draw on
+         * @param area the area to be drawn, null for no culling.
+         * @return the number of replayed commands.
+         */
+        public int replay(Graphics2D g, Rectangle area) {
+            int replayed = 0;
+            for (int i = 0; i < count; i++) {
+                int o = i * INTS, f = i * FLOATS;
+                if (area != null && !intersects(f, area)) {
+                    continue;
+                }
+                int x = (int) coords[f], y = (int) coords[f + 1], w = (int) coords[f + 2], h = (int) coords[f + 3];
+                Object paint = paints.get(ops[o + 2]);
+                switch (ops[o]) {
+                    case FILL_RECT -> {
+                        g.setColor((Color) paint);
+                        g.fillRect(x, y, w, h);
+                    }
+                    case DRAW_RECT -> {
+                        g.setColor((Color) paint);
+                        g.drawRect(x, y, w, h);
+                    }
+                    case IMAGE -> g.drawImage((Image) paint, x, y, w, h, null);
+                    default -> {
+                    }
+                }
+                replayed++;
+            }
+            return replayed;
+        }
+
+        private boolean intersects(int f, Rectangle area) {
+            // 1 pixel more for the rectangle borders.
+            return coords[f] <= area.x + area.width
+                    && coords[f] + coords[f + 2] + 1 >= area.x
+                    && coords[f + 1] <= area.y + area.height
+                    && coords[f + 1] + coords[f + 3] + 1 >= area.y;
+        }
+
+        private void add(int op, int layer, Object paint, float x, float y, float w, float h) {
+            if ((count + 1) * INTS > ops.length) {
+                ops = Arrays.copyOf(ops, ops.length * 2);
+                coords = Arrays.copyOf(coords, coords.length * 2);
+            }
+            Integer index = paintIndex.get(paint);
+            if (index == null) {
+                index = paints.size();
+                paints.add(paint);
+                paintIndex.put(paint, index);
+            }
+            int o = count * INTS, f = count * FLOATS;
+            ops[o] = op;
+            ops[o + 1] = layer;
+            ops[o + 2] = index;
+            coords[f] = x;
+            coords[f + 1] = y;
+            coords[f + 2] = w;
+            coords[f + 3] = h;
+            count++;
+        }
+    }
+
+    /**
+     * A software rasterizer drawing a {@link DisplayList} into the
+     * {@code int[]} pixels of a TYPE_INT_RGB image, tile by tile in parallel.
+     *
+     * <p>The image is split into square tiles. Commands are first binned into the
+     * tiles they overlap, in layer then recording order; then each tile is
+     * cleared and filled by a {@link ForkJoinPool} task, writing only its own
+     * pixels, so that tiles need no synchronization. The image is finally drawn
+     * in one blit. Only flat colored rectangles are supported: image commands
+     * are skipped, and colors are drawn opaque and without antialiasing.
+     */
+    public static class TileRasterizer {
+        public final int tileSize;
+        public int background = 0x000000;
+        public ForkJoinPool pool = ForkJoinPool.commonPool();
+        /**
+         * Scale from the display list coordinates to the image pixels, lower
+         * than 1 to rasterize at a lower internal resolution.
+         */
+        public float scale = 1.0f;
+
+        private BufferedImage image;
+        private int[] pixels;
+        private int width, height, tilesX, tilesY;
+        private int[][] bins = new int[0][];
+        private int[] binCounts = new int[0];
+        private long[] order = new long[256];
+
+        /**
+         * Creates a new rasterizer.
+         *
+         * @param tileSize the size of the tiles, in pixels.
+         */
+        public TileRasterizer(int tileSize) {
+            this.tileSize = tileSize;
+        }
+
+        public BufferedImage getImage() {
+            return image;
+        }
+
+        /**
+         * Retrieve the pixels of the image, to draw into them before the blit.
+         *
+         * @return the TYPE_INT_RGB pixels, or null before the first rasterization.
+         */
+        public int[] getPixels() {
+            return pixels;
+        }
+
+        /**
+         * Rasterize the commands of a display list into the tiles overlapping
+         * an area of the image.
+         *
+         * @param dl      the display list to draw
+         * @param offsetX x of the view, in display list coordinates
+         * @param offsetY y of the view, in display list coordinates
+         * @param w       image width, in pixels
+         * @param h       image height, in pixels
+         * @param area    the area of the image to be drawn, in pixels
+         * @return the number of drawn commands.
+         */
+        public int rasterize(DisplayList dl, int offsetX, int offsetY, int w, int h, Rectangle area) {
+            resize(w, h);
+            int tx0 = Math.max(0, area.x / tileSize);
+            int ty0 = Math.max(0, area.y / tileSize);
+            int tx1 = Math.min(tilesX - 1, (area.x + area.width - 1) / tileSize);
+            int ty1 = Math.min(tilesY - 1, (area.y + area.height - 1) / tileSize);
+            if (tx0 > tx1 || ty0 > ty1) {
+                return 0;
+            }
+            for (int ty = ty0; ty <= ty1; ty++) {
+                for (int tx = tx0; tx <= tx1; tx++) {
+                    binCounts[ty * tilesX + tx] = 0;
+                }
+            }
+            // stable order by layer: layer in the high bits, index in the low ones.
+            int n = dl.count;
+            if (order.length < n) {
+                order = new long[n * 2];
+            }
+            boolean layered = false;
+            for (int i = 0; i < n; i++) {
+                int layer = dl.ops[i * DisplayList.INTS + 1];
+                order[i] = ((long) layer << 32) | i;
+                layered |= layer != dl.ops[1];
+            }
+            if (layered) {
+                Arrays.sort(order, 0, n);
+            }
+            int drawn = 0;
+            for (int k = 0; k < n; k++) {
+                int i = (int) order[k];
+                if (dl.ops[i * DisplayList.INTS] == DisplayList.IMAGE) {
+                    continue;
+                }
+                int f = i * DisplayList.FLOATS;
+                int x0 = (int) dl.coords[f] - offsetX, y0 = (int) dl.coords[f + 1] - offsetY;
+                // the outline of a drawn rectangle covers 1 more pixel.
+                int x1 = toPixel(x0 + (int) dl.coords[f + 2]), y1 = toPixel(y0 + (int) dl.coords[f + 3]);
+                x0 = toPixel(x0);
+                y0 = toPixel(y0);
+                int cx0 = Math.max(tx0, floorDiv(x0)), cx1 = Math.min(tx1, floorDiv(x1));
+                int cy0 = Math.max(ty0, floorDiv(y0)), cy1 = Math.min(ty1, floorDiv(y1));
+                if (cx0 > cx1 || cy0 > cy1) {
+                    continue;
+                }
+                for (int ty = cy0; ty <= cy1; ty++) {
+                    for (int tx = cx0; tx <= cx1; tx++) {
+                        int t = ty * tilesX + tx;
+                        if (binCounts[t] == bins[t].length) {
+                            bins[t] = Arrays.copyOf(bins[t], bins[t].length * 2);
+                        }
+                        bins[t][binCounts[t]++] = i;
+                    }
+                }
+                drawn++;
+            }
+            int cols = tx1 - tx0 + 1, tiles = cols * (ty1 - ty0 + 1);
+            pool.submit(() -> IntStream.range(0, tiles).parallel()
+                    .forEach(j -> rasterizeTile(dl, tx0 + j % cols, ty0 + j / cols, offsetX, offsetY))).join();
+            return drawn;
+        }
+
+        private int floorDiv(int v) {
+            return Math.floorDiv(v, tileSize);
+        }
+
+        private int toPixel(int v) {
+            return scale == 1.0f ? v : (int) Math.floor(v * scale);
+        }
+
+        private void resize(int w, int h) {
+            if (image != null && w == width && h == height) {
+                return;
+            }
+            width = w;
+            height = h;
+            image = new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
+            pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+            tilesX = (w + tileSize - 1) / tileSize;
+            tilesY = (h + tileSize - 1) / tileSize;
+            bins = new int[tilesX * tilesY][];
+            for (int t = 0; t < bins.length; t++) {
+                bins[t] = new int[64];
+            }
+            binCounts = new int[bins.length];
+        }
+
+        private void rasterizeTile(DisplayList dl, int tx, int ty, int offsetX, int offsetY) {
+            int left = tx * tileSize, top = ty * tileSize;
+            int right = Math.min(width, left + tileSize) - 1, bottom = Math.min(height, top + tileSize) - 1;
+            for (int y = top; y <= bottom; y++) {
+                Arrays.fill(pixels, y * width + left, y * width + right + 1, background);
+            }
+            int t = ty * tilesX + tx;
+            int[] bin = bins[t];
+            for (int k = 0; k < binCounts[t]; k++) {
+                int i = bin[k];
+                int f = i * DisplayList.FLOATS;
+                int x0 = (int) dl.coords[f] - offsetX, y0 = (int) dl.coords[f + 1] - offsetY;
+                int x1 = toPixel(x0 + (int) dl.coords[f + 2]), y1 = toPixel(y0 + (int) dl.coords[f + 3]);
+                x0 = toPixel(x0);
+                y0 = toPixel(y0);
+                int rgb = ((Color) dl.paints.get(dl.ops[i * DisplayList.INTS + 2])).getRGB();
+                if (dl.ops[i * DisplayList.INTS] == DisplayList.FILL_RECT) {
+                    fill(x0, y0, x1 - 1, y1 - 1, rgb, left, top, right, bottom);
+                } else {
+                    // 1 pixel outline, from x0 to x1 and y0 to y1.
+                    fill(x0, y0, x1, y0, rgb, left, top, right, bottom);
+                    fill(x0, y1, x1, y1, rgb, left, top, right, bottom);
+                    fill(x0, y0 + 1, x0, y1 - 1, rgb, left, top, right, bottom);
+                    fill(x1, y0 + 1, x1, y1 - 1, rgb, left, top, right, bottom);
+                }
+            }
+        }
+
+        /**
+         * Fill the pixels from (x0, y0) to (x1, y1) included, clipped to the
+         * tile bounds.
+         */
+        private void fill(int x0, int y0, int x1, int y1, int rgb, int left, int top, int right, int bottom) {
+            x0 = Math.max(x0, left);
+            y0 = Math.max(y0, top);
+            x1 = Math.min(x1, right);
+            y1 = Math.min(y1, bottom);
+            if (x0 > x1) {
+                return;
+            }
+            for (int y = y0; y <= y1; y++) {
+                Arrays.fill(pixels, y * width + x0, y * width + x1 + 1, rgb);
+            }
+        }
+    }
+
+    /**
+     * A particle system storing its particles as a structure of arrays.
+     *
+     * <p>Each particle attribute lives in its own array, so that the update loop
+     * walks contiguous memory without any per-particle object. Particles are
+     * spawned by {@link Emitter}s up to a fixed capacity, and a dead particle
+     * is replaced by the last live one (swap-remove), keeping the live ones
+     * packed at the start of the arrays. Particles are drawn as single pixels,
+     * straight into an {@code int[]} raster, or into a layer image blitted once
+     * when drawing through Java2D.
+     */
+    public static class ParticleSystem {
+
+        /**
+         * A source of particles, spawning them at a constant rate around a
+         * direction.
+         */
+        public static class Emitter {
+            public float x, y;
+            /**
+             * Spawned particles per second.
+             */
+            public float rate = 1000;
+            /**
+             * Emission direction and angular spread, in radians.
+             */
+            public float direction = (float) -Math.PI * 0.5f, spread = (float) Math.PI * 2;
+            /**
+             * Maximum speed of the spawned particles, in pixels per second.
+             */
+            public float speed = 100;
+            /**
+             * Life of the spawned particles, in milliseconds.
+             */
+            public int life = 1000;
+            public int color = 0xffffffff;
+            public boolean active = true;
+            private float accumulator = 0;
+
+            public Emitter setPosition(float x, float y) {
+                this.x = x;
+                this.y = y;
+                return this;
+            }
+
+            public Emitter setRate(float rate) {
+                this.rate = rate;
+                return this;
+            }
+
+            public Emitter setDirection(float direction, float spread) {
+                this.direction = direction;
+                this.spread = spread;
+                return this;
+            }
+
+            public Emitter setSpeed(float speed) {
+                this.speed = speed;
+                return this;
+            }
+
+            public Emitter setLife(int life) {
+                this.life = life;
+                return this;
+            }
+
+            public Emitter setColor(Color color) {
+                this.color = color.getRGB();
+                return this;
+            }
+
+            public Emitter setActive(boolean active) {
+                this.active = active;
+                return this;
+            }
+        }
+
+        /**
+         * The positions and colors of the live particles at a given update,
+         * drawn by the render phase while the update goes on moving them.
+         */
+        public static class Snapshot {
+            public float[] x = new float[0], y = new float[0];
+            public int[] color = new int[0];
+            public int count = 0;
+            /**
+             * Area covered by the particles, in world coordinates.
+             */
+            public final Rectangle bounds = new Rectangle();
+        }
+
+        public final int capacity;
+        public final float[] x, y, vx, vy;
+        /**
+         * Remaining life of the particles, in milliseconds.
+         */
+        public final int[] life;
+        /**
+         * ARGB color of the particles.
+         */
+        public final int[] color;
+        /**
+         * Number of live particles, stored from index 0.
+         */
+        public int count = 0;
+        /**
+         * Vertical acceleration applied to all the particles, in pixels per
+         * second squared.
+         */
+        public float gravity = 0;
+        /**
+         * Area covered by the live particles at the last update, in world
+         * coordinates.
+         */
+        public final Rectangle bounds = new Rectangle();
+
+        private final List<Emitter> emitters = new ArrayList<>();
+        private final Random random = new Random(RANDOM_SEED);
+        private BufferedImage layer;
+        private int[] layerPixels;
+        private final Rectangle layerArea = new Rectangle();
+        private final Snapshot live = new Snapshot();
+
+        /**
+         * Creates a new particle system.
+         *
+         * @param capacity the maximum number of live particles.
+         */
+        public ParticleSystem(int capacity) {
+            this.capacity = capacity;
+            this.x = new float[capacity];
+            this.y = new float[capacity];
+            this.vx = new float[capacity];
+            this.vy = new float[capacity];
+            this.life = new int[capacity];
+            this.color = new int[capacity];
+            // the live view shares the particle arrays.
+            live.x = x;
+            live.y = y;
+            live.color = color;
+        }
+
+        public ParticleSystem add(Emitter emitter) {
+            emitters.add(emitter);
+            return this;
+        }
+
+        public List<Emitter> getEmitters() {
+            return emitters;
+        }
+
+        /**
+         * Spawn one particle.
+         *
+         * @return false if the system is full.
+         */
+        public boolean emit(float px, float py, float pvx, float pvy, int plife, int pcolor) {
+            if (count == capacity) {
+                return false;
+            }
+            x[count] = px;
+            y[count] = py;
+            vx[count] = pvx;
+            vy[count] = pvy;
+            life[count] = plife;
+            color[count] = pcolor;
+            count++;
+            return true;
+        }
+
+        /**
+         * Spawn the particles of the emitters, move the live ones and remove the
+         * dead ones.
+         *
+         * @param elapsed elapsed time since the previous update, in milliseconds.
+         */
+        public void update(long elapsed) {
+            float dt = elapsed / 1000.0f;
+            for (Emitter em : emitters) {
+                if (em.active) {
+                    spawn(em, dt);
+                }
+            }
+            int n = count;
+            float dvy = gravity * dt;
+            // no test in the integration loops, so that they can be vectorized.
+            for (int i = 0; i < n; i++) {
+                vy[i] += dvy;
+                x[i] += vx[i] * dt;
+                y[i] += vy[i] * dt;
+            }
+            int delta = (int) elapsed;
+            for (int i = 0; i < n; i++) {
+                life[i] -= delta;
+            }
+            // backward, so that the swapped last particle is already checked.
+            for (int i = n - 1; i >= 0; i--) {
+                if (life[i] <= 0) {
+                    int last = --n;
+                    x[i] = x[last];
+                    y[i] = y[last];
+                    vx[i] = vx[last];
+                    vy[i] = vy[last];
+                    life[i] = life[last];
+                    color[i] = color[last];
+                }
+            }
+            count = n;
+            computeBounds();
+        }
+
+        private void spawn(Emitter em, float dt) {
+            em.accumulator += em.rate * dt;
+            int n = (int) em.accumulator;
+            em.accumulator -= n;
+            for (int i = 0; i < n && count < capacity; i++) {
+                double angle = em.direction + (random.nextFloat() - 0.5f) * em.spread;
+                float speed = em.speed * (0.25f + random.nextFloat() * 0.75f);
+                emit(em.x, em.y, (float) Math.cos(angle) * speed, (float) Math.sin(angle) * speed,
+                        em.life / 2 + random.nextInt(em.life / 2 + 1), em.color);
+            }
+        }
+
+        /**
+         * Copy the live particles into a snapshot, growing its arrays if needed.
+         *
+         * @param s the snapshot to be filled.
+         * @return the filled snapshot.
+         */
+        public Snapshot snapshot(Snapshot s) {
+            if (s.x.length < count) {
+                s.x = new float[capacity];
+                s.y = new float[capacity];
+                s.color = new int[capacity];
+            }
+            System.arraycopy(x, 0, s.x, 0, count);
+            System.arraycopy(y, 0, s.y, 0, count);
+            System.arraycopy(color, 0, s.color, 0, count);
+            s.count = count;
+            s.bounds.setBounds(bounds);
+            return s;
+        }
+
+        /**
+         * Retrieve a view of the live particles, sharing their arrays, to draw
+         * them from the thread updating them.
+         *
+         * @return the live view.
+         */
+        public Snapshot getLive() {
+            live.count = count;
+            live.bounds.setBounds(bounds);
+            return live;
+        }
+
+        private void computeBounds() {
+            if (count == 0) {
+                bounds.setBounds(0, 0, 0, 0);
+                return;
+            }
+            float minX = Float.MAX_VALUE, minY = Float.MAX_VALUE, maxX = -Float.MAX_VALUE, maxY = -Float.MAX_VALUE;
+            for (int i = 0; i < count; i++) {
+                minX = Math.min(minX, x[i]);
+                maxX = Math.max(maxX, x[i]);
+                minY = Math.min(minY, y[i]);
+                maxY = Math.max(maxY, y[i]);
+            }
+            bounds.setBounds((int) Math.floor(minX), (int) Math.floor(minY),
+                    (int) Math.floor(maxX) - (int) Math.floor(minX) + 1,
+                    (int) Math.floor(maxY) - (int) Math.floor(minY) + 1);
+        }
+
+        /**
+         * Write the live particles into the pixels of a raster.
+         *
+         * @param pixels  the raster pixels, one int per pixel
+         * @param width   raster width
+         * @param offsetX x of the view, in world coordinates
+         * @param offsetY y of the view, in world coordinates
+         * @param area    the area of the raster to be drawn, clipped to the
+         *                raster bounds
+         * @return the number of drawn particles.
+         */
+        public int draw(int[] pixels, int width, int offsetX, int offsetY, Rectangle area) {
+            return draw(getLive(), pixels, width, offsetX, offsetY, 1.0f, area);
+        }
+
+        /**
+         * Write the particles of a snapshot into the pixels of a raster, drawn
+         * at a lower internal resolution when scaled.
+         *
+         * @param s       the particles to be drawn
+         * @param pixels  the raster pixels, one int per pixel
+         * @param width   raster width
+         * @param offsetX x of the view, in world coordinates
+         * @param offsetY y of the view, in world coordinates
+         * @param scale   scale from the view coordinates to the raster pixels
+         * @param area    the area of the raster to be drawn, in pixels, clipped
+         *                to the raster bounds
+         * @return the number of drawn particles.
+         */
+        public int draw(Snapshot s, int[] pixels, int width, int offsetX, int offsetY, float scale, Rectangle area) {
+            // dirty areas may go past the screen edges when particles fly away.
+            int x0 = Math.max(0, area.x), x1 = Math.min(width, area.x + area.width);
+            int y0 = Math.max(0, area.y), y1 = Math.min(pixels.length / width, area.y + area.height);
+            int aw = x1 - x0, ah = y1 - y0;
+            float[] x = s.x, y = s.y;
+            int[] color = s.color;
+            int drawn = 0;
+            for (int i = 0; i < s.count; i++) {
+                int px = (int) Math.floor((x[i] - offsetX) * scale) - x0;
+                int py = (int) Math.floor((y[i] - offsetY) * scale) - y0;
+                // negative as soon as the particle is out of the area.
+                if ((px | py | (aw - 1 - px) | (ah - 1 - py)) >= 0) {
+                    pixels[(py + y0) * width + px + x0] = color[i];
+                    drawn++;
+                }
+            }
+            return drawn;
+        }
+
+        /**
+         * Draw the live particles through Java2D, writing them into a
+         * transparent layer image blitted in one call.
+         *
+         * @param g       the Graphics2D context to draw on, in screen coordinates
+         * @param width   screen width
+         * @param height  screen height
+         * @param offsetX x of the view, in world coordinates
+         * @param offsetY y of the view, in world coordinates
+         * @param area    the area of the screen to be drawn
+         * @return the number of drawn particles.
+         */
+        public int draw(Graphics2D g, int width, int height, int offsetX, int offsetY, Rectangle area) {
+            return draw(getLive(), g, width, height, offsetX, offsetY, area);
+        }
+
+        /**
+         * Draw the particles of a snapshot through Java2D, writing them into the
+         * transparent layer image.
+         *
+         * @param s       the particles to be drawn
+         * @param g       the Graphics2D context to draw on, in screen coordinates
+         * @param width   screen width
+         * @param height  screen height
+         * @param offsetX x of the view, in world coordinates
+         * @param offsetY y of the view, in world coordinates
+         * @param area    the area of the screen to be drawn
+         * @return the number of drawn particles.
+         */
+        public int draw(Snapshot s, Graphics2D g, int width, int height, int offsetX, int offsetY, Rectangle area) {
+            if (layer == null || layer.getWidth() != width || layer.getHeight() != height) {
+                layer = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+                layerPixels = ((DataBufferInt) layer.getRaster().getDataBuffer()).getData();
+            }
+            int x0 = Math.max(0, area.x), x1 = Math.min(width, area.x + area.width);
+            int y0 = Math.max(0, area.y), y1 = Math.min(height, area.y + area.height);
+            if (x0 >= x1 || y0 >= y1) {
+                return 0;
+            }
+            for (int y = y0; y < y1; y++) {
+                Arrays.fill(layerPixels, y * width + x0, y * width + x1, 0);
+            }
+            layerArea.setBounds(x0, y0, x1 - x0, y1 - y0);
+            int drawn = draw(s, layerPixels, width, offsetX, offsetY, 1.0f, layerArea);
+            g.drawImage(layer, x0, y0, x1, y1, x0, y0, x1, y1, null);
+            return drawn;
+        }
+    }
+
+    /**
+     * The surface a frame is rendered to.
+     */
+    public interface RenderTarget {
+        int getWidth();
+
+        int getHeight();
+
+        /**
+         * Retrieve the width, in pixels, a frame is actually drawn at: lower
+         * than {@link #getWidth()} when drawn at a lower internal resolution.
+         *
+         * @return the internal frame width.
+         */
+        default int getSourceWidth() {
+            return getWidth();
+        }
+
+        /**
+         * Retrieve the height, in pixels, a frame is actually drawn at.
+         *
+         * @return the internal frame height.
+         */
+        default int getSourceHeight() {
+            return getHeight();
+        }
+
+        /**
+         * Retrieve the graphics context to draw the next frame on.
+         *
+         * @return a new graphics context, released by {@link #show(Graphics2D)}.
+         */
+        Graphics2D getGraphics();
+
+        /**
+         * Release the graphics context and present the drawn frame.
+         *
+         * @param g the graphics context retrieved by {@link #getGraphics()}.
+         */
+        void show(Graphics2D g);
+
+        /**
+         * Check if the last presented frame has been lost and must be drawn
+         * again.
+         *
+         * @return true if the frame was lost.
+         */
+        default boolean contentsLost() {
+            return false;
+        }
+
+        /**
+         * Create an offscreen image with the layout of the target.
+         *
+         * @param width  image width
+         * @param height image height
+         * @return the new image.
+         */
+        BufferedImage createCompatibleImage(int width, int height);
+    }
+
+    /**
+     * A render target presenting frames into a window, through its buffer
+     * strategy.
+     */
+    public static class WindowTarget implements RenderTarget {
+        private final JFrame window;
+
+        public WindowTarget(JFrame window) {
+            this.window = window;
+        }
+
+        public int getWidth() {
+            return window.getWidth();
+        }
+
+        public int getHeight() {
+            return window.getHeight();
+        }
+
+        public Graphics2D getGraphics() {
+            return (Graphics2D) window.getBufferStrategy().getDrawGraphics();
+        }
+
+        public void show(Graphics2D g) {
+            g.dispose();
+            window.getBufferStrategy().show();
+        }
+
+        public boolean contentsLost() {
+            return window.getBufferStrategy().contentsLost();
+        }
+
+        public BufferedImage createCompatibleImage(int width, int height) {
+            return window.getGraphicsConfiguration().createCompatibleImage(width, height);
+        }
+    }
+
+    /**
+     * A render target drawing frames into an offscreen image, which works
+     * without any screen (e.g. tests on a headless system).
+     */
+    public static class ImageTarget implements RenderTarget {
+        public final BufferedImage image;
+
+        public ImageTarget(int width, int height) {
+            this.image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB_PRE);
+        }
+
+        public int getWidth() {
+            return image.getWidth();
+        }
+
+        public int getHeight() {
+            return image.getHeight();
+        }
+
+        public Graphics2D getGraphics() {
+            return image.createGraphics();
+        }
+
+        public void show(Graphics2D g) {
+            g.dispose();
+        }
+
+        public BufferedImage createCompatibleImage(int width, int height) {
+            return new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB_PRE);
+        }
+    }
+
+    /**
+     * A render target drawing frames at a lower internal resolution, then
+     * upscaling them into another target in one {@code drawImage}.
+     *
+     * <p>It keeps the size of the wrapped target, and scales its graphics
+     * context down, so that the scene is drawn with the same coordinates
+     * whatever the scale. With a dynamic scale, {@link #adapt(double)} lowers the
+     * scale as soon as a frame exceeds the time budget, and raises it back
+     * after a series of fast frames.
+     *
+     * <p>Frames composed into an offscreen image first (dirty regions, tiled
+     * rasterizer) must size it to {@link #getSourceWidth()} and
+     * {@link #getSourceHeight()}: drawn over the whole target size, such an
+     * image is copied 1:1 into the internal one.
+     */
+    public static class ScaledTarget implements RenderTarget {
+        public final RenderTarget target;
+        /**
+         * Scale bounds used by the dynamic scale; the offscreen image is sized
+         * for the maximum one.
+         */
+        public float minScale = 0.25f, maxScale;
+        /**
+         * Scale change applied by each adaptation.
+         */
+        public float step = 0.125f;
+        /**
+         * Frame time budget, in milliseconds.
+         */
+        public double budget = 1000.0 / 60.0;
+        /**
+         * Number of frames under 60% of the budget before raising the scale.
+         */
+        public int fastFramesToRaise = 30;
+        /**
+         * Interpolation used to upscale the image, one of the
+         * {@link RenderingHints#KEY_INTERPOLATION} values.
+         */
+        public Object interpolation = RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR;
+
+        private float scale;
+        private int fastFrames = 0;
+        private BufferedImage image;
+        private int sourceWidth, sourceHeight;
+
+        /**
+         * Creates a new scaled target.
+         *
+         * @param target the target frames are upscaled into
+         * @param scale  the initial and maximum scale, in ]0, 1].
+         */
+        public ScaledTarget(RenderTarget target, float scale) {
+            this.target = target;
+            this.maxScale = scale;
+            // a configured scale may already be under the default minimum.
+            this.minScale = Math.min(minScale, scale);
+            this.scale = scale;
+        }
+
+        public float getScale() {
+            return scale;
+        }
+
+        public ScaledTarget setScale(float scale) {
+            // never above the maximum scale the offscreen image is sized for.
+            this.scale = Math.min(maxScale, Math.max(minScale, scale));
+            return this;
+        }
+
+        /**
+         * Adapt the scale to the time spent on the last frame.
+         *
+         * @param frameTime the frame time, in milliseconds.
+         */
+        public void adapt(double frameTime) {
+            if (frameTime > budget) {
+                setScale(scale - step);
+                fastFrames = 0;
+            } else if (frameTime < budget * 0.6 && scale < maxScale) {
+                if (++fastFrames >= fastFramesToRaise) {
+                    setScale(scale + step);
+                    fastFrames = 0;
+                }
+            } else {
+                fastFrames = 0;
+            }
+        }
+
+        public int getWidth() {
+            return target.getWidth();
+        }
+
+        public int getHeight() {
+            return target.getHeight();
+        }
+
+        @Override
+        public int getSourceWidth() {
+            return Math.max(1, (int) Math.ceil(target.getWidth() * scale));
+        }
+
+        @Override
+        public int getSourceHeight() {
+            return Math.max(1, (int) Math.ceil(target.getHeight() * scale));
+        }
+
+        public Graphics2D getGraphics() {
+            int w = target.getWidth(), h = target.getHeight();
+            int iw = Math.max(1, (int) Math.ceil(w * maxScale)), ih = Math.max(1, (int) Math.ceil(h * maxScale));
+            if (image == null || image.getWidth() != iw || image.getHeight() != ih) {
+                image = target.createCompatibleImage(iw, ih);
+            }
+            sourceWidth = getSourceWidth();
+            sourceHeight = getSourceHeight();
+            Graphics2D g = image.createGraphics();
+            g.clipRect(0, 0, sourceWidth, sourceHeight);
+            g.scale((double) sourceWidth / w, (double) sourceHeight / h);
+            return g;
+        }
+
+        public void show(Graphics2D g) {
+            g.dispose();
+            do {
+                Graphics2D tg = target.getGraphics();
+                tg.setRenderingHint(RenderingHints.KEY_INTERPOLATION, interpolation);
+                tg.drawImage(image, 0, 0, target.getWidth(), target.getHeight(),
+                        0, 0, sourceWidth, sourceHeight, null);
+                target.show(tg);
+            } while (target.contentsLost());
+        }
+
+        public boolean contentsLost() {
+            return target.contentsLost();
+        }
+
+        public BufferedImage createCompatibleImage(int width, int height) {
+            return target.createCompatibleImage(width, height);
+        }
+    }
+
+    /**
+     * A post-processing effect over the pixels of a frame.
+     *
+     * <p>An effect runs as one or more passes; each pass is applied in
+     * parallel on bands of rows, and all the bands of a pass are done before
+     * the next pass starts. A pass reads the frame from {@code src} and writes
+     * the whole frame into {@code dst}, unless it only fills the filter own
+     * buffers (see {@link #writesOutput(int)}).
+     */
+    public interface PostFilter {
+        String getName();
+
+        default int getPasses() {
+            return 1;
+        }
+
+        /**
+         * Check if a pass writes the processed frame into its output buffer.
+         *
+         * @param pass the pass index
+         * @return false if the pass only works on the filter own buffers.
+         */
+        default boolean writesOutput(int pass) {
+            return true;
+        }
+
+        /**
+         * Adapt the filter buffers and tables to the frame size.
+         *
+         * @param width  frame width
+         * @param height frame height
+         */
+        default void resize(int width, int height) {
+        }
+
+        /**
+         * Process a band of rows.
+         *
+         * @param pass   the pass index
+         * @param src    the frame pixels to read
+         * @param dst    the pixels to write
+         * @param width  frame width
+         * @param height frame height
+         * @param y0     first row of the band
+         * @param y1     row after the last row of the band
+         */
+        void apply(int pass, int[] src, int[] dst, int width, int height, int y0, int y1);
+
+        /**
+         * Multiply the 3 channels of a RGB pixel by a factor.
+         *
+         * @param c the pixel
+         * @param f the factor, 256 for 1.0
+         * @return the scaled pixel.
+         */
+        static int scale(int c, int f) {
+            return ((((c & 0xFF00FF) * f) >> 8) & 0xFF00FF) | ((((c & 0x00FF00) * f) >> 8) & 0x00FF00);
+        }
+
+        /**
+         * Add 2 RGB pixels, saturating each channel.
+         *
+         * @param a a pixel
+         * @param b another pixel
+         * @return the sum.
+         */
+        static int add(int a, int b) {
+            a &= 0xFFFFFF;
+            b &= 0xFFFFFF;
+            int sum = a + b;
+            int carries = (sum ^ a ^ b) & 0x01010100;
+            sum -= carries;
+            return (sum | (carries - (carries >> 8))) & 0xFFFFFF;
+        }
+
+        /**
+         * Box blur rows, with a running sum per channel.
+         */
+        static void blurRows(int[] src, int[] dst, int width, int y0, int y1, int radius) {
+            // sum * inv >> 20 divides by n exactly for the radius up to 31.
+            int inv = ((1 << 20) + radius * 2) / (radius * 2 + 1);
+            for (int y = y0; y < y1; y++) {
+                int row = y * width;
+                int r = 0, g = 0, b = 0;
+                for (int i = -radius; i <= radius; i++) {
+                    int c = src[row + Math.min(width - 1, Math.max(0, i))];
+                    r += (c >> 16) & 0xFF;
+                    g += (c >> 8) & 0xFF;
+                    b += c & 0xFF;
+                }
+                for (int x = 0; x < width; x++) {
+                    dst[row + x] = (((r * inv) >> 20) << 16) | (((g * inv) >> 20) << 8) | ((b * inv) >> 20);
+                    int in = src[row + Math.min(width - 1, x + radius + 1)];
+                    int out = src[row + Math.max(0, x - radius)];
+                    r += ((in >> 16) & 0xFF) - ((out >> 16) & 0xFF);
+                    g += ((in >> 8) & 0xFF) - ((out >> 8) & 0xFF);
+                    b += (in & 0xFF) - (out & 0xFF);
+                }
+            }
+        }
+
+        /**
+         * Box blur columns over a band of rows, with a running sum per channel.
+         */
+        static void blurColumns(int[] src, int[] dst, int width, int height, int y0, int y1, int radius) {
+            int inv = ((1 << 20) + radius * 2) / (radius * 2 + 1);
+            for (int x = 0; x < width; x++) {
+                int r = 0, g = 0, b = 0;
+                for (int i = y0 - radius; i <= y0 + radius; i++) {
+                    int c = src[Math.min(height - 1, Math.max(0, i)) * width + x];
+                    r += (c >> 16) & 0xFF;
+                    g += (c >> 8) & 0xFF;
+                    b += c & 0xFF;
+                }
+                for (int y = y0; y < y1; y++) {
+                    dst[y * width + x] = (((r * inv) >> 20) << 16) | (((g * inv) >> 20) << 8) | ((b * inv) >> 20);
+                    int in = src[Math.min(height - 1, y + radius + 1) * width + x];
+                    int out = src[Math.max(0, y - radius) * width + x];
+                    r += ((in >> 16) & 0xFF) - ((out >> 16) & 0xFF);
+                    g += ((in >> 8) & 0xFF) - ((out >> 8) & 0xFF);
+                    b += (in & 0xFF) - (out & 0xFF);
+                }
+            }
+        }
+    }
+
+    /**
+     * A separable box blur: a horizontal pass, then a vertical one.
+     */
+    public static class BlurFilter implements PostFilter {
+        public final int radius;
+
+        public BlurFilter(int radius) {
+            this.radius = radius;
+        }
+
+        public String getName() {
+            return "blur";
+        }
+
+        public int getPasses() {
+            return 2;
+        }
+
+        public void apply(int pass, int[] src, int[] dst, int width, int height, int y0, int y1) {
+            if (pass == 0) {
+                PostFilter.blurRows(src, dst, width, y0, y1, radius);
+            } else {
+                PostFilter.blurColumns(src, dst, width, height, y0, y1, radius);
+            }
+        }
+    }
+
+    /**
+     * Make the bright areas glow: the pixels over a threshold are extracted at
+     * half resolution, blurred, then added to the frame.
+     */
+    public static class BloomFilter implements PostFilter {
+        public final int threshold, radius;
+        /**
+         * Strength of the glow, 256 for 1.0.
+         */
+        public final int intensity;
+        private int[] bright = new int[0], blurred = new int[0];
+        private int halfWidth, halfHeight;
+
+        public BloomFilter(int threshold, int radius, float intensity) {
+            this.threshold = threshold;
+            this.radius = radius;
+            this.intensity = (int) (intensity * 256);
+        }
+
+        public String getName() {
+            return "bloom";
+        }
+
+        public int getPasses() {
+            return 4;
+        }
+
+        public boolean writesOutput(int pass) {
+            return pass == 3;
+        }
+
+        public void resize(int width, int height) {
+            halfWidth = (width + 1) / 2;
+            halfHeight = (height + 1) / 2;
+            bright = new int[halfWidth * halfHeight];
+            blurred = new int[halfWidth * halfHeight];
+        }
+
+        public void apply(int pass, int[] src, int[] dst, int width, int height, int y0, int y1) {
+            // rows of the band at half resolution.
+            int hy0 = (y0 + 1) / 2, hy1 = (y1 + 1) / 2;
+            switch (pass) {
+                case 0 -> {
+                    for (int hy = hy0; hy < hy1; hy++) {
+                        int row0 = hy * 2 * width, row1 = Math.min(height - 1, hy * 2 + 1) * width;
+                        for (int hx = 0; hx < halfWidth; hx++) {
+                            int x0 = hx * 2, x1 = Math.min(width - 1, x0 + 1);
+                            int c = average(src[row0 + x0], src[row0 + x1], src[row1 + x0], src[row1 + x1]);
+                            bright[hy * halfWidth + hx] = (Math.max(0, ((c >> 16) & 0xFF) - threshold) << 16)
+                                    | (Math.max(0, ((c >> 8) & 0xFF) - threshold) << 8)
+                                    | Math.max(0, (c & 0xFF) - threshold);
+                        }
+                    }
+                }
+                case 1 -> PostFilter.blurRows(bright, blurred, halfWidth, hy0, hy1, radius);
+                case 2 -> PostFilter.blurColumns(blurred, bright, halfWidth, halfHeight, hy0, hy1, radius);
+                default -> {
+                    for (int y = y0; y < y1; y++) {
+                        int row = y * width, half = (y >> 1) * halfWidth;
+                        for (int x = 0; x < width; x++) {
+                            dst[row + x] = PostFilter.add(src[row + x],
+                                    PostFilter.scale(bright[half + (x >> 1)], intensity));
+                        }
+                    }
+                }
+            }
+        }
+
+        private static int average(int a, int b, int c, int d) {
+            int rb = ((a & 0xFF00FF) + (b & 0xFF00FF) + (c & 0xFF00FF) + (d & 0xFF00FF)) >> 2;
+            int g = ((a & 0x00FF00) + (b & 0x00FF00) + (c & 0x00FF00) + (d & 0x00FF00)) >> 2;
+            return (rb & 0xFF00FF) | (g & 0x00FF00);
+        }
+    }
+
+    /**
+     * Darken every other row, like a CRT screen.
+     */
+    public static class ScanlinesFilter implements PostFilter {
+        /**
+         * Brightness of the dark rows, 256 for 1.0.
+         */
+        public final int darkness;
+
+        public ScanlinesFilter(float brightness) {
+            this.darkness = (int) (brightness * 256);
+        }
+
+        public String getName() {
+            return "scanlines";
+        }
+
+        public void apply(int pass, int[] src, int[] dst, int width, int height, int y0, int y1) {
+            for (int y = y0; y < y1; y++) {
+                int f = (y & 1) == 0 ? 256 : darkness;
+                for (int i = y * width; i < (y + 1) * width; i++) {
+                    dst[i] = PostFilter.scale(src[i], f);
+                }
+            }
+        }
+    }
+
+    /**
+     * Darken the frame borders, from a factor table computed once per frame
+     * size.
+     */
+    public static class VignetteFilter implements PostFilter {
+        public final float strength;
+        private int[] factors = new int[0];
+
+        public VignetteFilter(float strength) {
+            this.strength = strength;
+        }
+
+        public String getName() {
+            return "vignette";
+        }
+
+        public void resize(int width, int height) {
+            factors = new int[width * height];
+            float cx = width * 0.5f, cy = height * 0.5f;
+            for (int y = 0; y < height; y++) {
+                for (int x = 0; x < width; x++) {
+                    float dx = (x - cx) / cx, dy = (y - cy) / cy;
+                    float d = (dx * dx + dy * dy) * 0.5f;
+                    factors[y * width + x] = (int) (256 * Math.max(0, 1 - strength * d));
+                }
+            }
+        }
+
+        public void apply(int pass, int[] src, int[] dst, int width, int height, int y0, int y1) {
+            for (int i = y0 * width; i < y1 * width; i++) {
+                dst[i] = PostFilter.scale(src[i], factors[i]);
+            }
+        }
+    }
+
+    /**
+     * Reduce each color channel to a few levels, through a lookup table.
+     */
+    public static class PaletteFilter implements PostFilter {
+        private final int[] lut = new int[256];
+
+        public PaletteFilter(int levels) {
+            for (int v = 0; v < 256; v++) {
+                lut[v] = Math.round(Math.round(v * (levels - 1) / 255.0f) * 255.0f / (levels - 1));
+            }
+        }
+
+        public String getName() {
+            return "palette";
+        }
+
+        public void apply(int pass, int[] src, int[] dst, int width, int height, int y0, int y1) {
+            for (int i = y0 * width; i < y1 * width; i++) {
+                int c = src[i];
+                dst[i] = (lut[(c >> 16) & 0xFF] << 16) | (lut[(c >> 8) & 0xFF] << 8) | lut[c & 0xFF];
+            }
+        }
+    }
+
+    /**
+     * Run a chain of {@link PostFilter}s over the pixels of a frame, each pass
+     * in parallel bands of rows on a {@link ForkJoinPool}.
+     *
+     * <p>Passes ping-pong between the frame pixels and a scratch buffer,
+     * allocated once per frame size as are the filters buffers, so that no
+     * array is allocated per frame. The time spent in each filter is measured
+     * for the debug overlay.
+     */
+    public static class PostProcessor {
+        public final List<PostFilter> filters = new ArrayList<>();
+        /**
+         * Number of bands of rows a pass is split into.
+         */
+        public int bands = Runtime.getRuntime().availableProcessors() * 2;
+        public ForkJoinPool pool = ForkJoinPool.commonPool();
+
+        private int width, height;
+        private int[] scratch = new int[0];
+        private double[] times = new double[0];
+
+        /**
+         * Create a filter from its name, with its default settings.
+         *
+         * @param name one of blur, bloom, scanlines, vignette or palette
+         * @return the filter, or null if unknown.
+         */
+        public static PostFilter createFilter(String name) {
+            return switch (name.trim().toLowerCase()) {
+                case "blur" -> new BlurFilter(2);
+                case "bloom" -> new BloomFilter(160, 4, 1.0f);
+                case "scanlines" -> new ScanlinesFilter(0.7f);
+                case "vignette" -> new VignetteFilter(0.6f);
+                case "palette" -> new PaletteFilter(4);
+                default -> null;
+            };
+        }
+
+        public PostProcessor add(PostFilter filter) {
+            filters.add(filter);
+            times = Arrays.copyOf(times, filters.size());
+            if (width > 0) {
+                filter.resize(width, height);
+            }
+            return this;
+        }
+
+        /**
+         * Retrieve the time spent in a filter on the last processed frame.
+         *
+         * @param index the filter index
+         * @return the time, in milliseconds.
+         */
+        public double getTime(int index) {
+            return times[index];
+        }
+
+        /**
+         * Apply the filters to a frame, in place.
+         *
+         * @param pixels the frame pixels
+         * @param width  frame width
+         * @param height frame height
+         */
+        public void process(int[] pixels, int width, int height) {
+            if (width != this.width || height != this.height) {
+                this.width = width;
+                this.height = height;
+                scratch = new int[width * height];
+                for (PostFilter f : filters) {
+                    f.resize(width, height);
+                }
+            }
+            int[] src = pixels, dst = scratch;
+            int count = Math.max(1, Math.min(bands, height));
+            for (int i = 0; i < filters.size(); i++) {
+                PostFilter f = filters.get(i);
+                long start = System.nanoTime();
+                for (int pass = 0; pass < f.getPasses(); pass++) {
+                    int p = pass;
+                    int[] s = src, d = dst;
+                    pool.submit(() -> IntStream.range(0, count).parallel()
+                            .forEach(b -> f.apply(p, s, d, width, height,
+                                    b * height / count, (b + 1) * height / count))).join();
+                    if (f.writesOutput(pass)) {
+                        src = d;
+                        dst = s;
+                    }
+                }
+                times[i] = (System.nanoTime() - start) / 1_000_000.0;
+            }
+            if (src != pixels) {
+                System.arraycopy(src, 0, pixels, 0, pixels.length);
+            }
+        }
+    }
+
+    /**
+     * A render target drawing frames into an offscreen TYPE_INT_RGB image,
+     * post-processed by a {@link PostProcessor} before being drawn into
+     * another target.
+     */
+    public static class PostTarget implements RenderTarget {
+        public final RenderTarget target;
+        public final PostProcessor processor;
+
+        private BufferedImage frame;
+        private int[] pixels;
+
+        public PostTarget(RenderTarget target, PostProcessor processor) {
+            this.target = target;
+            this.processor = processor;
+        }
+
+        public int getWidth() {
+            return target.getWidth();
+        }
+
+        public int getHeight() {
+            return target.getHeight();
+        }
+
+        public Graphics2D getGraphics() {
+            int w = target.getWidth(), h = target.getHeight();
+            if (frame == null || frame.getWidth() != w || frame.getHeight() != h) {
+                frame = new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
+                pixels = ((DataBufferInt) frame.getRaster().getDataBuffer()).getData();
+            }
+            return frame.createGraphics();
+        }
+
+        public void show(Graphics2D g) {
+            g.dispose();
+            processor.process(pixels, frame.getWidth(), frame.getHeight());
+            do {
+                Graphics2D tg = target.getGraphics();
+                tg.drawImage(frame, 0, 0, null);
+                target.show(tg);
+            } while (target.contentsLost());
+        }
+
+        public boolean contentsLost() {
+            return target.contentsLost();
+        }
+
+        public BufferedImage createCompatibleImage(int width, int height) {
+            return target.createCompatibleImage(width, height);
+        }
+    }
+
+    /**
+     * Render a scene offscreen to measure the frame time and compare frames
+     * against golden images.
+     *
+     * <p>Run it as a program to benchmark the demo scene and (re)write a golden
+     * image: {@code RenderHarness [frames] [output.png]}.
+     */
+    public static class RenderHarness {
+        public final App app;
+        public final ImageTarget target;
+        public final Map<String, Object> stats = new HashMap<>();
+
+        /**
+         * Creates a harness rendering the app scene into an offscreen image.
+         *
+         * @param app    the app to render, its scene not created yet
+         * @param width  frame width
+         * @param height frame height
+         */
+        public RenderHarness(App app, int width, int height) {
+            this.app = app;
+            this.target = new ImageTarget(width, height);
+            app.renderTarget = target;
+            // same random colors and moves for every harness.
+            rand.setSeed(RANDOM_SEED);
+            app.createScene();
+            stats.put("elapsed", 0L);
+            stats.put("gameTime", 0L);
+            stats.put("fps", 0L);
+        }
+
+        /**
+         * Render frames, updating the scene before each one when requested.
+         *
+         * @param frames  number of frames to render
+         * @param elapsed simulated time between frames, in milliseconds
+         * @param update  true to update the scene before each frame
+         * @return the average frame time, in milliseconds.
+         */
+        public double run(int frames, long elapsed, boolean update) {
+            long total = 0;
+            for (int i = 0; i < frames; i++) {
+                long start = System.nanoTime();
+                if (update) {
+                    app.update(stats, elapsed);
+                } else if (app.displayListRendering) {
+                    app.recordDisplayList();
+                }
+                app.render(stats, elapsed);
+                total += System.nanoTime() - start;
+            }
+            return frames > 0 ? total / (frames * 1_000_000.0) : 0;
+        }
+
+        public BufferedImage getImage() {
+            return target.image;
+        }
+
+        /**
+         * Count the pixels differing between two images by more than a
+         * tolerance on any channel.
+         *
+         * @param a         first image
+         * @param b         second image
+         * @param tolerance maximum difference per channel (0-255)
+         * @return the number of different pixels, or all of them if the sizes
+         * differ.
+         */
+        public static int countDifferences(BufferedImage a, BufferedImage b, int tolerance) {
+            if (a.getWidth() != b.getWidth() || a.getHeight() != b.getHeight()) {
+                return Math.max(a.getWidth() * a.getHeight(), b.getWidth() * b.getHeight());
+            }
+            int count = 0;
+            for (int y = 0; y < a.getHeight(); y++) {
+                for (int x = 0; x < a.getWidth(); x++) {
+                    int pa = a.getRGB(x, y), pb = b.getRGB(x, y);
+                    for (int shift = 0; shift < 32; shift += 8) {
+                        if (Math.abs(((pa >> shift) & 0xFF) - ((pb >> shift) & 0xFF)) > tolerance) {
+                            count++;
+                            break;
+                        }
+                    }
+                }
+            }
+            return count;
+        }
+
+        /**
+         * Compare an image with a golden one.
+         *
+         * @param image     the rendered image
+         * @param golden    the expected image
+         * @param tolerance maximum difference per channel (0-255)
+         * @param maxRatio  maximum ratio of different pixels (0.0 to 1.0)
+         * @return true if the image matches the golden one.
+         */
+        public static boolean matches(BufferedImage image, BufferedImage golden, int tolerance, double maxRatio) {
+            return countDifferences(image, golden, tolerance) <= maxRatio * golden.getWidth() * golden.getHeight();
+        }
+
+        /**
+         * Load a golden image from the classpath.
+         *
+         * @param resource the image resource path
+         * @return the image, or null if not found.
+         * @throws IOException if the image cannot be read.
+         */
+        public static BufferedImage loadGolden(String resource) throws IOException {
+            try (InputStream in = App.class.getResourceAsStream(resource)) {
+                return in != null ? ImageIO.read(in) : null;
+            }
+        }
+
+        public static void main(String[] args) throws IOException {
+            int frames = args.length > 0 ? Integer.parseInt(args[0]) : 300;
+            RenderHarness harness = new RenderHarness(new App(), 800, 600);
+            harness.run(Math.min(frames, 30), 16, true);
+            double ms = harness.run(frames, 16, true);
+            info(RenderHarness.class, "%d frames rendered, %.3f ms/frame", frames, ms);
+            if (args.length > 1) {
+                Path out = Path.of(args[1]);
+                RenderHarness still = new RenderHarness(new App(), 800, 600);
+                still.app.hud = false;
+                still.run(1, 0, false);
+                Files.createDirectories(out.toAbsolutePath().getParent());
+                ImageIO.write(still.getImage(), "png", out.toFile());
+                info(RenderHarness.class, "Golden image written to %s", out);
+            }
+        }
+    }
+
+    /**
+     * A small set of screen rectangles to be repainted.
+     *
+     * <p>Each added rectangle is merged with the regions it overlaps or touches.
+     * When more than {@link #maxRegions} regions remain, the two regions whose
+     * union wastes the smallest area are merged, so that the number of repainted
+     * areas stays low. Rectangles are pooled and reused from frame to frame.
+     */
+    public static class DirtyRegions {
+        public int maxRegions = 16;
+
+        private final List<Rectangle> regions = new ArrayList<>();
+        private final List<Rectangle> pool = new ArrayList<>();
+
+        /**
+         * Add an area to be repainted.
+         *
+         * @param x left of the area
+         * @param y top of the area
+         * @param w width of the area
+         * @param h height of the area
+         */
+        public void add(int x, int y, int w, int h) {
+            if (w <= 0 || h <= 0) {
+                return;
+            }
+            int i = 0;
+            while (i < regions.size()) {
+                Rectangle r = regions.get(i);
+                if (x <= r.x + r.width && r.x <= x + w && y <= r.y + r.height && r.y <= y + h) {
+                    int nx = Math.min(x, r.x), ny = Math.min(y, r.y);
+                    w = Math.max(x + w, r.x + r.width) - nx;
+                    h = Math.max(y + h, r.y + r.height) - ny;
+                    x = nx;
+                    y = ny;
+                    remove(i);
+                    // the grown area may now overlap regions already checked.
+                    i = 0;
+                } else {
+                    i++;
+                }
+            }
+            Rectangle r = pool.isEmpty() ? new Rectangle() : pool.remove(pool.size() - 1);
+            r.setBounds(x, y, w, h);
+            regions.add(r);
+            if (regions.size() > maxRegions) {
+                mergeCheapest();
+            }
+        }
+
+        /**
+         * Add an area to be repainted.
+         *
+         * @param r the area to add.
+         */
+        public void add(Rectangle r) {
+            add(r.x, r.y, r.width, r.height);
+        }
+
+        public int size() {
+            return regions.size();
+        }
+
+        public boolean isEmpty() {
+            return regions.isEmpty();
+        }
+
+        public Rectangle get(int i) {
+            return regions.get(i);
+        }
+
+        /**
+         * Compute the total area of the regions, which never overlap.
+         *
+         * @return the area, in pixels.
+         */
+        public long getArea() {
+            long area = 0;
+            for (Rectangle r : regions) {
+                area += (long) r.width * r.height;
+            }
+            return area;
+        }
+
+        /**
+         * Remove all the regions.
+         */
+        public void clear() {
+            pool.addAll(regions);
+            regions.clear();
+        }
+
+        private void remove(int i) {
+            Rectangle last = regions.remove(regions.size() - 1);
+            if (i < regions.size()) {
+                pool.add(regions.set(i, last));
+            } else {
+                pool.add(last);
+            }
+        }
+
+        private void mergeCheapest() {
+            int bestA = 0, bestB = 1;
+            long bestWaste = Long.MAX_VALUE;
+            for (int a = 0; a < regions.size(); a++) {
+                Rectangle ra = regions.get(a);
+                for (int b = a + 1; b < regions.size(); b++) {
+                    Rectangle rb = regions.get(b);
+                    long uw = Math.max(ra.x + ra.width, rb.x + rb.width) - Math.min(ra.x, rb.x);
+                    long uh = Math.max(ra.y + ra.height, rb.y + rb.height) - Math.min(ra.y, rb.y);
+                    long waste = uw * uh - (long) ra.width * ra.height - (long) rb.width * rb.height;
+                    if (waste < bestWaste) {
+                        bestWaste = waste;
+                        bestA = a;
+                        bestB = b;
+                    }
+                }
+            }
+            Rectangle ra = regions.get(bestA), rb = regions.get(bestB);
+            int x = Math.min(ra.x, rb.x), y = Math.min(ra.y, rb.y);
+            int w = Math.max(ra.x + ra.width, rb.x + rb.width) - x;
+            int h = Math.max(ra.y + ra.height, rb.y + rb.height) - y;
+            remove(bestB);
+            remove(bestA);
+            add(x, y, w, h);
+        }
+    }
+
+    /**
+     * A cache of rasterized texts, keyed by text, font and color.
+     *
+     * <p>A text is measured the first time it is drawn, and rasterized into an
+     * antialiased translucent image the second time, so that texts changing
+     * every frame are not rasterized for nothing. The entries are kept in least
+     * recently used order and evicted when the images exceed {@link #maxBytes}
+     * or the entries exceed {@link #maxEntries}.
+     */
+    public static class TextCache {
+        private record Key(String text, Font font, Color color) {
+        }
+
+        private record FontKey(Font base, int style, float size) {
+        }
+
+        private static class Entry {
+            int advance;
+            int uses;
+            Rectangle bounds;
+            BufferedImage image;
+        }
+
+        public long maxBytes = 4L * 1024 * 1024;
+        public int maxEntries = 512;
+
+        public long hits = 0;
+        public long misses = 0;
+        private long bytes = 0;
+
+        private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+        private final LinkedHashMap<FontKey, Font> fonts = new LinkedHashMap<>(16, 0.75f, true);
+        private final FontRenderContext frc = new FontRenderContext(null, true, false);
+
+        /**
+         * Retrieve a derived font, without creating it again on each call.
+         *
+         * @param base  the font to derive from
+         * @param style the font style
+         * @param size  the font size
+         * @return the derived font.
+         */
+        public Font derive(Font base, int style, float size) {
+            FontKey key = new FontKey(base, style, size);
+            Font font = fonts.get(key);
+            if (font == null) {
+                font = base.deriveFont(style, size);
+                fonts.put(key, font);
+                if (fonts.size() > 64) {
+                    fonts.remove(fonts.keySet().iterator().next());
+                }
+            }
+            return font;
+        }
+
+        /**
+         * Draw a text with its left baseline at a position, from its cached image
+         * when available.
+         *
+         * @param g     the graphics context
+         * @param text  the text to draw
+         * @param x     left of the text
+         * @param y     baseline of the text
+         * @param font  the font of the text
+         * @param c     the color of the text
+         */
+        public void draw(Graphics2D g, String text, int x, int y, Font font, Color c) {
+            Entry e = get(text, font, c);
+            if (e.image == null && ++e.uses > 1 && !text.isEmpty()) {
+                rasterize(g, text, font, c, e);
+                evict();
+            }
+            if (e.image != null && (g.getTransform().getType() & ~AffineTransform.TYPE_TRANSLATION) == 0) {
+                g.drawImage(e.image, x + e.bounds.x - 1, y + e.bounds.y - 1, null);
+            } else {
+                g.setFont(font);
+                g.setColor(c);
+                g.drawString(text, x, y);
+            }
+        }
+
+        /**
+         * Retrieve the advance width of a text.
+         *
+         * @param text  the text to measure
+         * @param font  the font of the text
+         * @param c     the color of the text
+         * @return the width in pixels.
+         */
+        public int stringWidth(String text, Font font, Color c) {
+            return get(text, font, c).advance;
+        }
+
+        /**
+         * Retrieve the memory used by the cached images.
+         *
+         * @return the size in bytes.
+         */
+        public long getBytes() {
+            return bytes;
+        }
+
+        /**
+         * Remove all the cached texts.
+         */
+        public void clear() {
+            entries.clear();
+            bytes = 0;
+        }
+
+        private Entry get(String text, Font font, Color c) {
+            Key key = new Key(text, font, c);
+            Entry e = entries.get(key);
+            if (e == null) {
+                misses++;
+                e = new Entry();
+                GlyphVector gv = font.createGlyphVector(frc, text);
+                e.advance = (int) Math.ceil(gv.getLogicalBounds().getWidth());
+                e.bounds = gv.getPixelBounds(frc, 0, 0);
+                entries.put(key, e);
+                evict();
+            } else {
+                hits++;
+            }
+            return e;
+        }
+
+        private void rasterize(Graphics2D g, String text, Font font, Color c, Entry e) {
+            int w = e.bounds.width + 2, h = e.bounds.height + 2;
+            e.image = g.getDeviceConfiguration().createCompatibleImage(w, h, Transparency.TRANSLUCENT);
+            Graphics2D ig = e.image.createGraphics();
+            ig.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            ig.setFont(font);
+            ig.setColor(c);
+            ig.drawString(text, 1 - e.bounds.x, 1 - e.bounds.y);
+            ig.dispose();
+            bytes += 4L * w * h;
+        }
+
+        private void evict() {
+            Iterator<Map.Entry<Key, Entry>> it = entries.entrySet().iterator();
+            while ((bytes > maxBytes || entries.size() > maxEntries) && it.hasNext()) {
+                Entry e = it.next().getValue();
+                if (e.image != null) {
+                    bytes -= 4L * e.image.getWidth() * e.image.getHeight();
+                }
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * A reusable text buffer, formatting numbers and times without allocating,
+     * to build the texts changing every frame (e.g. the debug line).
+     *
+     * <p>Example usage:
+     * <pre>{@code
+     * TextBuilder tb = new TextBuilder(64);
+     * tb.clear().append("FPS:").append(fps, 3); // "FPS:060"
+     * drawChars(g, tb, 30, 40, TextAlign.LEFT, font, Color.ORANGE);
+     * }</pre>
+     */
+    public static class TextBuilder implements CharSequence {
+        private char[] chars;
+        private int length = 0;
+
+        /**
+         * Creates a new text builder.
+         *
+         * @param capacity the initial capacity, grown when needed.
+         */
+        public TextBuilder(int capacity) {
+            this.chars = new char[capacity];
+        }
+
+        public TextBuilder clear() {
+            length = 0;
+            return this;
+        }
+
+        public TextBuilder append(char c) {
+            ensureCapacity(length + 1);
+            chars[length++] = c;
+            return this;
         }
 
-        public T setColor(Color c) {
-            this.color = c;
-            return (T) this;
+        public TextBuilder append(String text) {
+            int n = text.length();
+            ensureCapacity(length + n);
+            text.getChars(0, n, chars, length);
+            length += n;
+            return this;
         }
 
-        public T setFillColor(Color fc) {
-            this.fillColor = fc;
-            return (T) this;
+        public TextBuilder append(long value) {
+            return append(value, 1);
         }
 
-        public T setActive(boolean a) {
-            this.active = a;
-            return (T) this;
+        /**
+         * Append an integer value, padded with leading zeros.
+         *
+         * @param value the value to append
+         * @param width the minimum number of digits.
+         * @return this builder.
+         */
+        public TextBuilder append(long value, int width) {
+            if (value < 0) {
+                append('-');
+            } else {
+                // digits are computed on the negative value, to support Long.MIN_VALUE.
+                value = -value;
+            }
+            int digits = 1;
+            for (long v = value / 10; v != 0; v /= 10) {
+                digits++;
+            }
+            int n = Math.max(digits, width);
+            ensureCapacity(length + n);
+            for (int i = length + n - 1; i >= length; i--) {
+                chars[i] = (char) ('0' - value % 10);
+                value /= 10;
+            }
+            length += n;
+            return this;
         }
 
-        public T setMass(float m) {
-            this.mass = m;
-            return (T) this;
+        /**
+         * Append a decimal value, rounded to a number of decimals.
+         *
+         * @param value    the value to append
+         * @param decimals the number of decimals, from 0 to 9.
+         * @return this builder.
+         */
+        public TextBuilder append(double value, int decimals) {
+            long scale = 1;
+            for (int i = 0; i < decimals; i++) {
+                scale *= 10;
+            }
+            long scaled = Math.round(Math.abs(value) * scale);
+            if (value < 0 && scaled != 0) {
+                append('-');
+            }
+            append(scaled / scale);
+            if (decimals > 0) {
+                append('.').append(scaled % scale, decimals);
+            }
+            return this;
         }
 
-        public boolean isIntersect(Entity<?> other) {
-            // Axis-Aligned Bounding Box (AABB) intersection test
-            return x < other.x + other.width
-                    && x + width > other.x
-                    && y < other.y + other.height
-                    && y + height > other.y;
+        /**
+         * Append a duration with the {@code d-hh:mm:ss.SSS} format.
+         *
+         * @param time the duration, in milliseconds.
+         * @return this builder.
+         */
+        public TextBuilder appendTime(long time) {
+            return append(time / (24 * 3600 * 1000))
+                    .append('-').append((time / (3600 * 1000)) % 24, 2)
+                    .append(':').append((time / (60 * 1000)) % 60, 2)
+                    .append(':').append((time / 1000) % 60, 2)
+                    .append('.').append(time % 1000, 3);
         }
 
-        public boolean isActive() {
-            return this.active;
+        /**
+         * Retrieve the internal buffer, valid up to {@link #length()}.
+         *
+         * @return the characters of the text.
+         */
+        public char[] getChars() {
+            return chars;
         }
 
-        public void update(long elapsed) {
-            x += vx * (elapsed / 1000f);
-            y += vy * (elapsed / 1000f);
+        @Override
+        public int length() {
+            return length;
         }
 
-        public void draw(Graphics2D g) {
-            if (fillColor != null) {
-                g.setColor(fillColor);
-                g.fillRect((int) (x + 0.5f), (int) (y + 0.5f), width, height);
-            }
-            if (color != null) {
-                g.setColor(color);
-                g.drawRect((int) (x + 0.5f), (int) (y + 0.5f), width, height);
+        @Override
+        public char charAt(int index) {
+            if (index < 0 || index >= length) {
+                throw new IndexOutOfBoundsException(index);
             }
+            return chars[index];
         }
 
-    }
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return toString().substring(start, end);
+        }
 
-    /**
-     * Represents a game object with properties such as position, velocity, size, color, and active state.
-     * This class extends the Entity class and is intended to be a base model for visual and interactive game objects.
-     */
-    public static class GameObject extends Entity<GameObject> {
-        public GameObject(String name) {
-            super(name);
+        @Override
+        public String toString() {
+            return new String(chars, 0, length);
+        }
+
+        private void ensureCapacity(int capacity) {
+            if (capacity > chars.length) {
+                chars = Arrays.copyOf(chars, Math.max(capacity, chars.length * 2));
+            }
         }
     }
 
@@ -260,6 +2721,14 @@ public class App implements KeyListener {
      * Default is PRODUCTION.
      */
     public static AppMode mode = AppMode.DEVELOPMENT;
+    /**
+     * The rasterized texts cache used by {@link #drawText}.
+     */
+    public static TextCache textCache = new TextCache();
+    /**
+     * Draw the texts from their cached image.
+     */
+    public static boolean textCaching = true;
 
     public boolean exit = false;
     public boolean pause = false;
@@ -269,12 +2738,136 @@ public class App implements KeyListener {
 
     public Dimension winDim;
     public JFrame window;
+    /**
+     * The surface frames are rendered to, the window by default.
+     */
+    public RenderTarget renderTarget;
+    /**
+     * Internal resolution of the frames, relative to the window size; frames
+     * are upscaled to the window when lower than 1.
+     */
+    public float renderScale = 1.0f;
+    /**
+     * Lower the internal resolution when the frames exceed the time budget.
+     */
+    public boolean dynamicScale = false;
+    /**
+     * Frame time budget of the dynamic scale, in milliseconds.
+     */
+    public double frameBudget = 1000.0 / 60.0;
+    /**
+     * Upscale the frames with a bilinear filtering instead of the nearest
+     * neighbor.
+     */
+    public boolean bilinearScale = false;
+    /**
+     * The post-processing effects applied to the frames, empty for none.
+     */
+    public PostProcessor postProcessor = new PostProcessor();
+    /**
+     * Draw the welcome and exit texts over the scene.
+     */
+    public boolean hud = true;
+
+    /**
+     * The visible area of the scene, in world coordinates; its size follows the
+     * window size, and its position can be moved to scroll the scene.
+     */
+    public Rectangle viewport = new Rectangle();
+    /**
+     * Only draw the entities intersecting the viewport.
+     */
+    public boolean culling = true;
+    /**
+     * Draw the entities through the state-sorted {@link RenderQueue}; when
+     * false, each entity draws itself directly.
+     */
+    public boolean queueRendering = true;
+    /**
+     * The render queue the entities are drawn through.
+     */
+    public RenderQueue renderQueue = new RenderQueue();
+    /**
+     * Record the frame into a display list at the end of the update, and
+     * render it from this list instead of reading the entities.
+     */
+    public boolean displayListRendering = true;
+
+    // triple buffered display lists: recorded by update, published, replayed by render.
+    private DisplayList recordingList = new DisplayList();
+    private DisplayList publishedList = new DisplayList();
+    private DisplayList replayingList = new DisplayList();
+    private boolean listPublished = false;
+    private DisplayList frameList;
+    private ParticleSystem.Snapshot frameParticles;
+
+    /**
+     * Draw the display list with the tile-parallel software rasterizer instead
+     * of Java2D.
+     */
+    public boolean tiledRendering = false;
+    /**
+     * The software rasterizer used when {@link #tiledRendering} is on.
+     */
+    public TileRasterizer tileRasterizer = new TileRasterizer(64);
+    private final Object displayListLock = new Object();
+    /**
+     * The particles of the scene, drawn over the entities.
+     */
+    public ParticleSystem particles = new ParticleSystem(100_000);
+    /**
+     * The particle emitter following the player.
+     */
+    public ParticleSystem.Emitter playerEmitter = new ParticleSystem.Emitter()
+            .setRate(2000)
+            .setSpeed(120)
+            .setLife(1500)
+            .setColor(Color.ORANGE);
+    private Rectangle lastParticleBounds = new Rectangle();
+
+    // the debug line, rebuilt every frame without allocating.
+    private final TextBuilder debugText = new TextBuilder(160);
+    private Font debugFont;
+    /**
+     * Only repaint the screen areas changed since the previous frame, into a
+     * persistent frame image; when false, the whole scene is drawn every frame.
+     */
+    public boolean dirtyRendering = false;
+    /**
+     * Ratio of the screen area above which dirty rendering falls back to a full
+     * redraw.
+     */
+    public float dirtyFullRatio = 0.5f;
+    /**
+     * Number of frames after which the frame image is presented again even
+     * without any change, to recover from a window exposure.
+     */
+    public int dirtyRefreshFrames = 30;
+
+    private DirtyRegions dirtyRegions = new DirtyRegions();
+    private BufferedImage frame;
+    private Rectangle drawArea = new Rectangle();
+    private Rectangle cullArea = new Rectangle();
+    private Rectangle pixelArea = new Rectangle();
+    private Rectangle lastViewport = new Rectangle();
+    private boolean lastDebug = false;
+    private int framesSincePresent = 0;
 
     private List<Entity<?>> entities = new CopyOnWriteArrayList<>();
     private Map<String, Entity<?>> entitiesMap = new ConcurrentHashMap<>();
 
+    private static final RenderingHints RENDERING_HINTS = new RenderingHints(
+            Map.of(
+                    RenderingHints.KEY_ANTIALIASING,
+                    RenderingHints.VALUE_ANTIALIAS_ON,
+                    RenderingHints.KEY_TEXT_ANTIALIASING,
+                    RenderingHints.VALUE_TEXT_ANTIALIAS_ON
+            )
+    );
+
     private static long cpt = 0;
-    private static Random rand = new Random(67092);
+    private static final long RANDOM_SEED = 67092;
+    private static Random rand = new Random(RANDOM_SEED);
 
     /**
      * Creates a new instance of the GameApp.
@@ -374,6 +2967,66 @@ public class App implements KeyListener {
                     mode = AppMode.valueOf(value.toUpperCase());
                     info(${MAINCLASS}.class, "read config '%s' = '%s'", key, value);
                 }
+                case "app.render.culling" -> {
+                    culling = Boolean.parseBoolean(value);
+                    info(${MAINCLASS}.class, "read config '%s' = '%s'", key, value);
+                }
+                case "app.render.text.cache" -> {
+                    textCaching = Boolean.parseBoolean(value);
+                    info(${MAINCLASS}.class, "read config '%s' = '%s'", key, value);
+                }
+                case "app.render.queue" -> {
+                    queueRendering = Boolean.parseBoolean(value);
+                    info(${MAINCLASS}.class, "read config '%s' = '%s'", key, value);
+                }
+                case "app.render.displaylist" -> {
+                    displayListRendering = Boolean.parseBoolean(value);
+                    info(${MAINCLASS}.class, "read config '%s' = '%s'", key, value);
+                }
+                case "app.render.tiled" -> {
+                    tiledRendering = Boolean.parseBoolean(value);
+                    info(${MAINCLASS}.class, "read config '%s' = '%s'", key, value);
+                }
+                case "app.particles.max" -> {
+                    particles = new ParticleSystem(Integer.parseInt(value));
+                    info(${MAINCLASS}.class, "read config '%s' = '%s'", key, value);
+                }
+                case "app.particles.rate" -> {
+                    playerEmitter.setRate(Float.parseFloat(value));
+                    info(${MAINCLASS}.class, "read config '%s' = '%s'", key, value);
+                }
+                case "app.render.scale" -> {
+                    renderScale = Math.max(0.1f, Math.min(1.0f, Float.parseFloat(value)));
+                    info(${MAINCLASS}.class, "read config '%s' = '%s'", key, value);
+                }
+                case "app.render.scale.dynamic" -> {
+                    dynamicScale = Boolean.parseBoolean(value);
+                    info(${MAINCLASS}.class, "read config '%s' = '%s'", key, value);
+                }
+                case "app.render.scale.budget" -> {
+                    frameBudget = Double.parseDouble(value);
+                    info(${MAINCLASS}.class, "read config '%s' = '%s'", key, value);
+                }
+                case "app.render.scale.filter" -> {
+                    bilinearScale = "bilinear".equalsIgnoreCase(value);
+                    info(${MAINCLASS}.class, "read config '%s' = '%s'", key, value);
+                }
+                case "app.render.post" -> {
+                    postProcessor.filters.clear();
+                    for (String name : value.split(",")) {
+                        PostFilter filter = PostProcessor.createFilter(name);
+                        if (filter != null) {
+                            postProcessor.add(filter);
+                        } else if (!name.isBlank()) {
+                            warn(${MAINCLASS}.class, "Unknown post-processing filter: %s", name);
+                        }
+                    }
+                    info(${MAINCLASS}.class, "read config '%s' = '%s'", key, value);
+                }
+                case "app.render.dirty" -> {
+                    dirtyRendering = Boolean.parseBoolean(value);
+                    info(${MAINCLASS}.class, "read config '%s' = '%s'", key, value);
+                }
                 case "app.window.size" -> {
                     String[] keyVal = value.toLowerCase().split("x");
                     winDim = new Dimension(
@@ -402,6 +3055,10 @@ public class App implements KeyListener {
         }
     }
 
+    public List<Entity<?>> getEntities() {
+        return entities;
+    }
+
     public void loop() {
         long startTime = 0,
                 endTime = 0,
@@ -436,7 +3093,7 @@ public class App implements KeyListener {
             stats.put("startTime", startTime);
             stats.put("endTime", endTime);
             stats.put("elapsed", elapsed);
-            stats.put("gameTime", convertLongTimeToString(gameTime));
+            stats.put("gameTime", gameTime);
             stats.put("fps", fps);
         } while (!exit);
         dispose();
@@ -473,13 +3130,37 @@ public class App implements KeyListener {
         window.pack();
         window.setVisible(true);
         window.createBufferStrategy(3);
+        renderTarget = new WindowTarget(window);
+        if (!postProcessor.filters.isEmpty()) {
+            renderTarget = new PostTarget(renderTarget, postProcessor);
+        }
+        if (renderScale < 1.0f || dynamicScale) {
+            renderTarget = createScaledTarget(renderTarget);
+        }
+    }
+
+    /**
+     * Wrap a render target to draw the frames at the configured internal
+     * resolution.
+     *
+     * @param target the target to upscale the frames into
+     * @return the scaled target.
+     */
+    public ScaledTarget createScaledTarget(RenderTarget target) {
+        ScaledTarget scaled = new ScaledTarget(target, renderScale);
+        scaled.budget = frameBudget;
+        scaled.interpolation = bilinearScale
+                ? RenderingHints.VALUE_INTERPOLATION_BILINEAR
+                : RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR;
+        return scaled;
     }
 
     public void createScene() {
         // add a main object (the future player object)
         add(new GameObject("player")
                 .setSize(24, 32)
-                .setPosition(window.getWidth() * 0.5f, window.getHeight() * 0.5f)
+                .setLayer(1)
+                .setPosition(renderTarget.getWidth() * 0.5f, renderTarget.getHeight() * 0.5f)
                 .setColor(Color.WHITE)
                 .setFillColor(Color.BLUE));
 
@@ -488,12 +3169,13 @@ public class App implements KeyListener {
         for (int i = 0; i < 200; i++) {
             add(new GameObject("box_%s".formatted(i))
                     .setPosition(
-                            rand.nextFloat(((int) (window.getWidth() - 8) / 8) * 8f),
-                            rand.nextFloat(((int) (window.getHeight() - 8) / 8) * 8f))
+                            rand.nextFloat(((int) (renderTarget.getWidth() - 8) / 8) * 8f),
+                            rand.nextFloat(((int) (renderTarget.getHeight() - 8) / 8) * 8f))
                     .setSize(8, 8)
                     .setColor(Color.BLACK)
                     .setFillColor(Colors.random()));
         }
+        particles.add(playerEmitter);
     }
 
     public void update(Map<String, Object> stats, long elapsed) {
@@ -502,6 +3184,50 @@ public class App implements KeyListener {
         entities.stream().filter(Entity::isActive).forEach(e -> {
             updateEntity(e, elapsed);
         });
+        Entity<?> player = entitiesMap.get("player");
+        playerEmitter.setPosition(player.x + player.width * 0.5f, player.y + player.height * 0.5f);
+        particles.update(elapsed);
+        if (displayListRendering) {
+            recordDisplayList();
+        }
+    }
+
+    /**
+     * Record the active entities into a display list, then publish it for the
+     * render phase.
+     */
+    private void recordDisplayList() {
+        recordingList.reset();
+        for (Entity<?> e : entities) {
+            if (e.isActive()) {
+                e.record(recordingList);
+            }
+        }
+        particles.snapshot(recordingList.particles);
+        synchronized (displayListLock) {
+            DisplayList list = publishedList;
+            publishedList = recordingList;
+            recordingList = list;
+            listPublished = true;
+        }
+    }
+
+    /**
+     * Retrieve the last published display list to be replayed, keeping the
+     * previous one if no new frame has been recorded since.
+     *
+     * @return the display list to replay.
+     */
+    private DisplayList acquireDisplayList() {
+        synchronized (displayListLock) {
+            if (listPublished) {
+                DisplayList list = replayingList;
+                replayingList = publishedList;
+                publishedList = list;
+                listPublished = false;
+            }
+        }
+        return replayingList;
     }
 
     private void manageBoxesAnimation(long elapsed) {
@@ -541,68 +3267,284 @@ public class App implements KeyListener {
     }
 
     public void render(Map<String, Object> stats, long elapsed) {
+        long start = System.nanoTime();
+        renderFrame(stats);
+        double renderTime = (System.nanoTime() - start) / 1_000_000.0;
+        stats.put("renderTime", renderTime);
+        if (renderTarget instanceof ScaledTarget scaled) {
+            if (dynamicScale) {
+                scaled.adapt(renderTime);
+            }
+            stats.put("renderScale", scaled.getScale());
+        }
+    }
+
+    private void renderFrame(Map<String, Object> stats) {
         // prepare drawing graphics API
-        BufferStrategy bf = window.getBufferStrategy();
-        Graphics2D g = (Graphics2D) bf.getDrawGraphics();
+        int width = renderTarget.getWidth(), height = renderTarget.getHeight();
+        viewport.setSize(width, height);
+        if (displayListRendering) {
+            frameList = acquireDisplayList();
+        }
+        // the particles moved by a concurrent update are drawn from the list.
+        frameParticles = displayListRendering ? frameList.particles : particles.getLive();
+        if (dirtyRendering) {
+            renderDirtyRegions(stats);
+            return;
+        }
+        Graphics2D g = renderTarget.getGraphics();
         // set drawing configuration.
-        g.setRenderingHints(
-                Map.of(
-                        RenderingHints.KEY_ANTIALIASING,
-                        RenderingHints.VALUE_ANTIALIAS_ON,
-                        RenderingHints.KEY_TEXT_ANTIALIASING,
-                        RenderingHints.VALUE_TEXT_ANTIALIAS_ON
-                )
-        );
+        setRenderingHints(g);
         // clear window
         g.setBackground(Color.BLACK);
-        g.clearRect(0, 0, window.getWidth(), window.getHeight());
+        g.clearRect(0, 0, width, height);
 
         // do you drawings
-        // do you drawings
-        entities.stream().filter(Entity::isActive).forEach(e -> drawEntity(g, e));
-
-        drawText(
-                g,
-                getI18n("app.message.welcome", "Welcome into this demo"),
-                (int) (window.getWidth() * 0.1),
-                (int) (window.getHeight() * 0.1),
-                TextAlign.LEFT,
-                24.0f,
-                Color.WHITE,
-                Font.BOLD
-        );
-        drawText(
-                g,
-                getI18n("app.message.exit", "press ESCAPE to exit"),
-                (int) (window.getWidth() * 0.95),
-                (int) (window.getHeight() * .95),
-                TextAlign.RIGHT,
-                12.0f,
-                Color.GRAY,
-                Font.BOLD
-        );
+        drawArea.setBounds(0, 0, width, height);
+        stats.put("drawn", 0);
+        stats.put("culled", 0);
+        drawScene(g, stats, drawArea);
+        // switch buffer
+        renderTarget.show(g);
+    }
+
+    /**
+     * Render only the screen areas changed since the previous frame into the
+     * frame image, then present it. Nothing is drawn nor presented when nothing
+     * changed, and the whole frame is drawn again when the changed area is too
+     * large, the view scrolled or the window was resized.
+     *
+     * @param stats the statistics map
+     */
+    private void renderDirtyRegions(Map<String, Object> stats) {
+        int w = renderTarget.getWidth(), h = renderTarget.getHeight();
+        // the frame is kept at the internal resolution of a scaled target.
+        int fw = renderTarget.getSourceWidth(), fh = renderTarget.getSourceHeight();
+        boolean full = frame == null || frame.getWidth() != fw || frame.getHeight() != fh
+                || viewport.x != lastViewport.x || viewport.y != lastViewport.y
+                || (debug > 0) != lastDebug;
+        if (frame == null || frame.getWidth() != fw || frame.getHeight() != fh) {
+            frame = renderTarget.createCompatibleImage(fw, fh);
+        }
+        lastViewport.setBounds(viewport);
+        lastDebug = debug > 0;
 
+        dirtyRegions.clear();
+        for (Entity<?> e : entities) {
+            collectDirtyRegions(e);
+        }
+        if (!lastParticleBounds.isEmpty() || frameParticles.count > 0) {
+            dirtyRegions.add(lastParticleBounds);
+            lastParticleBounds.setBounds(frameParticles.bounds);
+            lastParticleBounds.translate(-viewport.x, -viewport.y);
+            dirtyRegions.add(lastParticleBounds);
+        }
         if (debug > 0) {
+            // the debug line changes every frame.
+            dirtyRegions.add(0, h - 56, w, 22);
+        }
+        if (full || dirtyRegions.getArea() > w * h * dirtyFullRatio) {
+            dirtyRegions.clear();
+            dirtyRegions.add(0, 0, w, h);
+        }
+        stats.put("dirty", dirtyRegions.size());
+        framesSincePresent++;
+        if (dirtyRegions.isEmpty() && framesSincePresent < dirtyRefreshFrames && !renderTarget.contentsLost()) {
+            return;
+        }
+
+        Graphics2D fg = frame.createGraphics();
+        fg.scale((double) fw / w, (double) fh / h);
+        setRenderingHints(fg);
+        fg.setBackground(Color.BLACK);
+        stats.put("drawn", 0);
+        stats.put("culled", 0);
+        for (int i = 0; i < dirtyRegions.size(); i++) {
+            Rectangle r = dirtyRegions.get(i);
+            fg.setClip(r.x, r.y, r.width, r.height);
+            fg.clearRect(r.x, r.y, r.width, r.height);
+            drawScene(fg, stats, r);
+        }
+        fg.dispose();
+
+        do {
+            Graphics2D g = renderTarget.getGraphics();
+            g.drawImage(frame, 0, 0, w, h, null);
+            renderTarget.show(g);
+        } while (renderTarget.contentsLost());
+        framesSincePresent = 0;
+    }
+
+    /**
+     * Add to the dirty regions the previous and current screen areas of an
+     * entity which moved, changed, appeared or disappeared.
+     *
+     * @param e the entity to be checked.
+     */
+    private void collectDirtyRegions(Entity<?> e) {
+        // 1 pixel margin around the border to include antialiasing.
+        int bx = (int) (e.x + 0.5f) - viewport.x - 1;
+        int by = (int) (e.y + 0.5f) - viewport.y - 1;
+        int bw = e.width + 3, bh = e.height + 3;
+        boolean visible = e.isActive() && e.isInView(viewport);
+        Rectangle last = e.drawnBounds;
+        if (!e.changed && visible != last.isEmpty()
+                && (!visible || (last.x == bx && last.y == by && last.width == bw && last.height == bh))) {
+            return;
+        }
+        dirtyRegions.add(last);
+        if (visible) {
+            last.setBounds(bx, by, bw, bh);
+            dirtyRegions.add(last);
+        } else {
+            last.setSize(0, 0);
+        }
+        e.changed = false;
+    }
+
+    /**
+     * Draw the entities and texts intersecting a screen area.
+     *
+     * @param g     the Graphics2D context to draw on
+     * @param stats the statistics map, where drawn and culled entities are
+     *              counted
+     * @param area  the screen area to be drawn.
+     */
+    private void drawScene(Graphics2D g, Map<String, Object> stats, Rectangle area) {
+        // 1 pixel margin to catch the antialiased borders of the entities around.
+        cullArea.setBounds(area.x + viewport.x - 1, area.y + viewport.y - 1, area.width + 2, area.height + 2);
+        g.translate(-viewport.x, -viewport.y);
+        int drawn = 0, culled = 0;
+        if (displayListRendering && tiledRendering) {
+            // rasterize at the internal resolution of a scaled target.
+            int w = renderTarget.getWidth(), h = renderTarget.getHeight();
+            int rw = renderTarget.getSourceWidth(), rh = renderTarget.getSourceHeight();
+            float scale = (float) rw / w;
+            pixelArea.setBounds((int) Math.floor(area.x * scale), (int) Math.floor(area.y * scale), 0, 0);
+            pixelArea.add((int) Math.ceil((area.x + area.width) * scale),
+                    (int) Math.ceil((area.y + area.height) * scale));
+            tileRasterizer.scale = scale;
+            drawn = tileRasterizer.rasterize(frameList, viewport.x, viewport.y, rw, rh, pixelArea);
+            culled = frameList.size() - drawn;
+            stats.put("particlesDrawn", particles.draw(frameParticles, tileRasterizer.getPixels(), rw,
+                    viewport.x, viewport.y, scale, pixelArea));
+            // the view translation is already applied to the rasterized image,
+            // and its pixels are copied 1:1 into the scaled target ones.
+            g.translate(viewport.x, viewport.y);
+            AffineTransform view = g.getTransform();
+            g.scale((double) w / rw, (double) h / rh);
+            g.drawImage(tileRasterizer.getImage(),
+                    pixelArea.x, pixelArea.y, pixelArea.x + pixelArea.width, pixelArea.y + pixelArea.height,
+                    pixelArea.x, pixelArea.y, pixelArea.x + pixelArea.width, pixelArea.y + pixelArea.height,
+                    null);
+            g.setTransform(view);
+            g.translate(-viewport.x, -viewport.y);
+        } else if (displayListRendering) {
+            // drawn and culled count display list commands.
+            Rectangle cull = culling ? cullArea : null;
+            drawn = queueRendering ? frameList.replay(renderQueue, cull) : frameList.replay(g, cull);
+            culled = frameList.size() - drawn;
+        } else {
+            for (Entity<?> e : entities) {
+                if (!e.isActive()) {
+                    continue;
+                }
+                if (!culling || e.isInView(cullArea)) {
+                    if (queueRendering) {
+                        e.draw(renderQueue);
+                    } else {
+                        drawEntity(g, e);
+                    }
+                    drawn++;
+                } else {
+                    culled++;
+                }
+            }
+        }
+        if (queueRendering) {
+            renderQueue.flush(g);
+            stats.put("commands", renderQueue.executed);
+            stats.put("stateChanges", renderQueue.stateChanges);
+        }
+        g.translate(viewport.x, viewport.y);
+        if (!(displayListRendering && tiledRendering)) {
+            stats.put("particlesDrawn", particles.draw(frameParticles, g, renderTarget.getWidth(), renderTarget.getHeight(),
+                    viewport.x, viewport.y, area));
+        }
+        drawn += (int) stats.get("drawn");
+        culled += (int) stats.get("culled");
+        stats.put("drawn", drawn);
+        stats.put("culled", culled);
+
+        if (hud) {
+            drawText(
+                    g,
+                    getI18n("app.message.welcome", "Welcome into this demo"),
+                    (int) (renderTarget.getWidth() * 0.1),
+                    (int) (renderTarget.getHeight() * 0.1),
+                    TextAlign.LEFT,
+                    24.0f,
+                    Color.WHITE,
+                    Font.BOLD
+            );
             drawText(
                     g,
-                    "[ dbg:%d | elapsed:%02d | time:%s | FPS:%03d | pause:%s ]".formatted(
-                            debug,
-                            stats.get("elapsed"),
-                            stats.get("gameTime"),
-                            stats.get("fps"),
-                            pause ? "ON" : "OFF"
-                    ),
+                    getI18n("app.message.exit", "press ESCAPE to exit"),
+                    (int) (renderTarget.getWidth() * 0.95),
+                    (int) (renderTarget.getHeight() * .95),
+                    TextAlign.RIGHT,
+                    12.0f,
+                    Color.GRAY,
+                    Font.BOLD
+            );
+        }
+
+        if (debug > 0) {
+            if (debugFont == null) {
+                debugFont = textCache.derive(g.getFont(), Font.PLAIN, 11.0f);
+            }
+            debugText.clear()
+                    .append("[ dbg:").append(debug)
+                    .append(" | elapsed:").append(getStat(stats, "elapsed"), 2)
+                    .append(" | time:").appendTime(getStat(stats, "gameTime"))
+                    .append(" | FPS:").append(getStat(stats, "fps"), 3)
+                    .append(" | pause:").append(pause ? "ON" : "OFF")
+                    .append(" | drawn:").append(drawn)
+                    .append(" | culled:").append(culled)
+                    .append(" | cmd:").append(getStat(stats, "commands"))
+                    .append(" | state:").append(getStat(stats, "stateChanges"))
+                    .append(" | part:").append(frameParticles.count);
+            for (int i = 0; i < postProcessor.filters.size(); i++) {
+                debugText.append(" | ").append(postProcessor.filters.get(i).getName())
+                        .append(':').append(postProcessor.getTime(i), 2).append("ms");
+            }
+            debugText.append(" ]");
+            drawChars(
+                    g,
+                    debugText,
                     30,
-                    window.getHeight() - 40,
+                    renderTarget.getHeight() - 40,
                     TextAlign.LEFT,
-                    11.0f,
-                    Color.ORANGE,
-                    Font.PLAIN
+                    debugFont,
+                    Color.ORANGE
             );
         }
-        // switch buffer
-        g.dispose();
-        bf.show();
+    }
+
+    /**
+     * Retrieve a numeric statistic.
+     *
+     * @param stats the statistics map
+     * @param key   the statistic name
+     * @return the statistic value, or 0 if not set.
+     */
+    private static long getStat(Map<String, Object> stats, String key) {
+        Object value = stats.get(key);
+        return value instanceof Number n ? n.longValue() : 0;
+    }
+
+    private void setRenderingHints(Graphics2D g) {
+        g.setRenderingHints(RENDERING_HINTS);
     }
 
     private void drawEntity(Graphics2D g, Entity<?> e) {
@@ -800,12 +3742,13 @@ public class App implements KeyListener {
             Color c,
             int fontStyle
     ) {
-        Font font = g.getFont().deriveFont(fontStyle, fontSize);
+        Font font = textCache.derive(g.getFont(), fontStyle, fontSize);
         drawText(g, text, x, y, align, font, c);
     }
 
     /**
-     * Draw text on the screen.
+     * Draw text on the screen, from the {@link #textCache} when
+     * {@link #textCaching} is on.
      *
      * @param g     the graphics context
      * @param text  the text to draw
@@ -826,6 +3769,16 @@ public class App implements KeyListener {
     ) {
         g.setFont(font);
         g.setColor(c);
+        if (textCaching) {
+            int width = align.equals(TextAlign.LEFT) ? 0 : textCache.stringWidth(text, font, c);
+            int offsetX = align.equals(TextAlign.CENTER)
+                    ? (int) -(width * 0.5)
+                    : align.equals(TextAlign.RIGHT)
+                    ? -width
+                    : 0;
+            textCache.draw(g, text, x + offsetX, y, font, c);
+            return;
+        }
         int offsetX = align.equals(TextAlign.CENTER)
                 ? (int) -(g.getFontMetrics().stringWidth(text) * 0.5)
                 : align.equals(TextAlign.RIGHT)
@@ -834,6 +3787,40 @@ public class App implements KeyListener {
         g.drawString(text, x + offsetX, y);
     }
 
+    /**
+     * Draw a text from a {@link TextBuilder}, without going through a String
+     * nor the {@link #textCache}, for the texts changing every frame.
+     *
+     * @param g     the graphics context
+     * @param text  the text to draw
+     * @param x     the x coordinate of the text
+     * @param y     the y coordinate of the text
+     * @param align the alignment of the text
+     * @param font  the font of the text
+     * @param c     the color of the text
+     */
+    public static void drawChars(
+            Graphics2D g,
+            TextBuilder text,
+            int x,
+            int y,
+            TextAlign align,
+            Font font,
+            Color c
+    ) {
+        g.setFont(font);
+        g.setColor(c);
+        int width = align.equals(TextAlign.LEFT)
+                ? 0
+                : g.getFontMetrics().charsWidth(text.getChars(), 0, text.length());
+        int offsetX = align.equals(TextAlign.CENTER)
+                ? (int) -(width * 0.5)
+                : align.equals(TextAlign.RIGHT)
+                ? -width
+                : 0;
+        g.drawChars(text.getChars(), 0, text.length(), x + offsetX, y);
+    }
+
     /**
      * Get internationalized text.
      *
@@ -854,16 +3841,6 @@ public class App implements KeyListener {
      * @return the string representation of the time value
      */
     public static String convertLongTimeToString(long time) {
-        long days = (time / (24 * 3600 * 1000));
-        long hours = (time / (3600 * 1000)) % 3600;
-        long mins = (time / (60 * 1000)) % 60;
-        long secs = (time / (1000)) % 60;
-        return "%d-%02d:%02d:%02d.%03d".formatted(
-                days,
-                hours,
-                mins,
-                secs,
-                time % 1000
-        );
+        return new TextBuilder(16).appendTime(time).toString();
     }
 }
@@ -0,0 +1,60 @@
+package com.snapgames.demo.oneoone;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.Rectangle;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DirtyRegionsTest {
+
+    @Test
+    public void testAdd_separateAreasAreKept() {
+        App.DirtyRegions regions = new App.DirtyRegions();
+        regions.add(0, 0, 10, 10);
+        regions.add(100, 100, 10, 10);
+
+        assertEquals(2, regions.size(), "Expected two distinct regions");
+        assertEquals(200, regions.getArea(), "Expected the area of both regions");
+    }
+
+    @Test
+    public void testAdd_overlappingAreasAreMerged() {
+        App.DirtyRegions regions = new App.DirtyRegions();
+        regions.add(0, 0, 10, 10);
+        regions.add(50, 0, 10, 10);
+        // bridges the two previous regions
+        regions.add(5, 0, 50, 10);
+
+        assertEquals(1, regions.size(), "Expected all the regions to be merged");
+        assertEquals(new Rectangle(0, 0, 60, 10), regions.get(0));
+    }
+
+    @Test
+    public void testAdd_regionCountIsBounded() {
+        App.DirtyRegions regions = new App.DirtyRegions();
+        regions.maxRegions = 4;
+        for (int i = 0; i < 20; i++) {
+            regions.add(i * 20, (i % 2) * 200, 10, 10);
+        }
+
+        assertTrue(regions.size() <= 4, "Expected at most 4 regions, got " + regions.size());
+        for (int i = 0; i < 20; i++) {
+            boolean covered = false;
+            for (int r = 0; r < regions.size(); r++) {
+                covered |= regions.get(r).contains(new Rectangle(i * 20, (i % 2) * 200, 10, 10));
+            }
+            assertTrue(covered, "Expected area %d to be covered".formatted(i));
+        }
+    }
+
+    @Test
+    public void testClear_emptiesRegions() {
+        App.DirtyRegions regions = new App.DirtyRegions();
+        regions.add(0, 0, 10, 10);
+        regions.clear();
+
+        assertTrue(regions.isEmpty(), "Expected no region after clear");
+        assertEquals(0, regions.getArea());
+    }
+}
@@ -0,0 +1,89 @@
+package com.snapgames.demo.oneoone;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DisplayListTest {
+
+    @Test
+    public void testRecord_frozenFromEntityChanges() {
+        App.GameObject e = new App.GameObject("box")
+                .setPosition(2, 2)
+                .setSize(6, 6)
+                .setColor(Color.WHITE)
+                .setFillColor(Color.RED);
+        App.DisplayList dl = new App.DisplayList();
+        e.record(dl);
+        assertEquals(2, dl.size(), "Expected a fill and a border command");
+
+        // the recorded frame must not follow the entity anymore.
+        e.setPosition(12, 12);
+        BufferedImage img = new BufferedImage(20, 20, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = img.createGraphics();
+        dl.replay(g, null);
+        g.dispose();
+
+        assertEquals(Color.RED.getRGB(), img.getRGB(5, 5));
+        assertEquals(0, img.getRGB(15, 15) & 0xFFFFFF);
+    }
+
+    @Test
+    public void testReplay_queueMatchesDirectDrawing() {
+        App.DisplayList dl = new App.DisplayList();
+        for (int i = 0; i < 300; i++) {
+            new App.GameObject("box_" + i)
+                    .setPosition((i * 7) % 90, (i * 13) % 90)
+                    .setSize(8, 8)
+                    .setColor(Color.BLACK)
+                    .setFillColor(i % 2 == 0 ? Color.RED : Color.GREEN)
+                    .record(dl);
+        }
+        assertEquals(600, dl.size(), "Expected the buffers to grow");
+
+        App.GameObject single = new App.GameObject("single")
+                .setPosition(40, 40)
+                .setSize(8, 8)
+                .setColor(Color.WHITE)
+                .setFillColor(Color.BLUE);
+        App.DisplayList one = new App.DisplayList();
+        single.record(one);
+
+        BufferedImage direct = new BufferedImage(100, 100, BufferedImage.TYPE_INT_RGB);
+        Graphics2D gd = direct.createGraphics();
+        single.draw(gd);
+        gd.dispose();
+
+        BufferedImage queued = new BufferedImage(100, 100, BufferedImage.TYPE_INT_RGB);
+        Graphics2D gq = queued.createGraphics();
+        App.RenderQueue q = new App.RenderQueue();
+        one.replay(q, null);
+        q.flush(gq);
+        gq.dispose();
+
+        for (int y = 0; y < 100; y++) {
+            for (int x = 0; x < 100; x++) {
+                assertEquals(direct.getRGB(x, y), queued.getRGB(x, y), "Pixel %d,%d differs".formatted(x, y));
+            }
+        }
+    }
+
+    @Test
+    public void testReplay_culledCommandsAreSkipped() {
+        App.DisplayList dl = new App.DisplayList();
+        new App.GameObject("in").setPosition(10, 10).setSize(8, 8).record(dl);
+        new App.GameObject("out").setPosition(500, 500).setSize(8, 8).record(dl);
+
+        App.RenderQueue q = new App.RenderQueue();
+        assertEquals(2, dl.replay(q, new Rectangle(0, 0, 100, 100)), "Expected only the visible entity commands");
+        assertEquals(2, q.size());
+
+        dl.reset();
+        assertEquals(0, dl.size());
+    }
+}
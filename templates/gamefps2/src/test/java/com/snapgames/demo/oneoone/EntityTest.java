@@ -2,6 +2,8 @@ package com.snapgames.demo.oneoone;
 
 import org.junit.jupiter.api.Test;
 
+import java.awt.Rectangle;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 public class EntityTest {
@@ -60,4 +62,30 @@ public class EntityTest {
         assertEquals(50f, e.x, 0.0001f, "X position should have moved by vx * elapsed/1000");
         assertEquals(25f, e.y, 0.0001f, "Y position should have moved by vy * elapsed/1000");
     }
+
+    @Test
+    public void testIsInView_insideAndOutside() {
+        Rectangle view = new Rectangle(0, 0, 100, 100);
+
+        App.Entity<?> inside = new App.Entity<>();
+        inside.setPosition(10, 10);
+        inside.setSize(8, 8);
+
+        App.Entity<?> outside = new App.Entity<>();
+        outside.setPosition(150, 40);
+        outside.setSize(8, 8);
+
+        assertTrue(inside.isInView(view), "Expected entity inside the view to be visible");
+        assertFalse(outside.isInView(view), "Expected entity out of the view to be culled");
+    }
+
+    @Test
+    public void testIsInView_partiallyVisibleAndScrolledView() {
+        App.Entity<?> e = new App.Entity<>();
+        e.setPosition(-4, 50);
+        e.setSize(8, 8);
+
+        assertTrue(e.isInView(new Rectangle(0, 0, 100, 100)), "Expected partially visible entity to be drawn");
+        assertFalse(e.isInView(new Rectangle(200, 0, 100, 100)), "Expected entity to be culled once the view scrolled");
+    }
 }
@@ -0,0 +1,66 @@
+package com.snapgames.demo.oneoone;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.Color;
+import java.awt.Rectangle;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ParticleSystemTest {
+
+    @Test
+    public void testUpdate_movesAndRemovesDeadParticles() {
+        App.ParticleSystem ps = new App.ParticleSystem(10);
+        ps.emit(0, 0, 100, 0, 50, 1);
+        ps.emit(0, 0, 0, 100, 150, 2);
+        ps.emit(0, 0, -100, 0, 50, 3);
+
+        ps.update(100);
+
+        assertEquals(1, ps.count, "Expected the dead particles to be removed");
+        assertEquals(2, ps.color[0], "Expected the live particle to be packed at the start");
+        assertEquals(10, ps.y[0], 0.001f);
+        assertEquals(50, ps.life[0]);
+    }
+
+    @Test
+    public void testEmit_isBoundedByCapacity() {
+        App.ParticleSystem ps = new App.ParticleSystem(100);
+        ps.add(new App.ParticleSystem.Emitter().setRate(10_000).setLife(1000));
+
+        ps.update(100);
+
+        assertEquals(100, ps.count, "Expected the emitter to fill the system up to its capacity");
+        assertFalse(ps.emit(0, 0, 0, 0, 10, 0), "Expected a full system to refuse new particles");
+    }
+
+    @Test
+    public void testDraw_writesVisibleParticlesIntoRaster() {
+        App.ParticleSystem ps = new App.ParticleSystem(10);
+        ps.emit(105, 52, 0, 0, 100, Color.RED.getRGB());
+        ps.emit(300, 52, 0, 0, 100, Color.RED.getRGB());
+        int[] pixels = new int[20 * 10];
+
+        int drawn = ps.draw(pixels, 20, 100, 50, new Rectangle(0, 0, 20, 10));
+
+        assertEquals(1, drawn, "Expected only the particle in the view to be drawn");
+        assertEquals(Color.RED.getRGB(), pixels[2 * 20 + 5]);
+    }
+
+    @Test
+    public void testDraw_snapshotIsNotMovedByUpdate() {
+        App.ParticleSystem ps = new App.ParticleSystem(10);
+        ps.emit(105, 52, 1000, 0, 1000, Color.RED.getRGB());
+        ps.update(0);
+        App.ParticleSystem.Snapshot snapshot = ps.snapshot(new App.ParticleSystem.Snapshot());
+        int[] pixels = new int[20 * 10];
+
+        ps.update(100);
+        int drawn = ps.draw(snapshot, pixels, 20, 100, 50, 1.0f, new Rectangle(0, 0, 20, 10));
+
+        assertEquals(1, drawn, "Expected the particle drawn at its snapshot position");
+        assertEquals(Color.RED.getRGB(), pixels[2 * 20 + 5]);
+        assertEquals(new Rectangle(105, 52, 1, 1), snapshot.bounds);
+    }
+}
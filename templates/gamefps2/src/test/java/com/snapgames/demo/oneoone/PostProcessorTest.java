@@ -0,0 +1,80 @@
+package com.snapgames.demo.oneoone;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PostProcessorTest {
+
+    private static final int W = 64, H = 48;
+
+    private static App.PostProcessor createChain(int bands) {
+        App.PostProcessor pp = new App.PostProcessor();
+        pp.bands = bands;
+        for (String name : new String[]{"blur", "bloom", "scanlines", "vignette", "palette"}) {
+            pp.add(App.PostProcessor.createFilter(name));
+        }
+        return pp;
+    }
+
+    @Test
+    public void testProcess_parallelBandsMatchSingleBand() {
+        int[] frame = new int[W * H];
+        Random rand = new Random(42);
+        for (int i = 0; i < frame.length; i++) {
+            frame[i] = rand.nextInt(0x1000000);
+        }
+        int[] single = frame.clone(), banded = frame.clone();
+
+        createChain(1).process(single, W, H);
+        createChain(7).process(banded, W, H);
+
+        assertArrayEquals(single, banded, "Expected the band split not to change the result");
+    }
+
+    @Test
+    public void testBlur_keepsUniformFrameAndSpreadsPoints() {
+        App.PostProcessor pp = new App.PostProcessor().add(new App.BlurFilter(1));
+        int[] frame = new int[W * H];
+        Arrays.fill(frame, 0x405060);
+        pp.process(frame, W, H);
+        assertTrue(Arrays.stream(frame).allMatch(c -> c == 0x405060), "Expected a uniform frame to stay unchanged");
+
+        Arrays.fill(frame, 0);
+        frame[10 * W + 10] = 0x909090;
+        pp.process(frame, W, H);
+        assertEquals(0x101010, frame[10 * W + 10]);
+        assertEquals(0x101010, frame[11 * W + 11], "Expected the point to spread over its neighbours");
+        assertEquals(0, frame[12 * W + 12]);
+    }
+
+    @Test
+    public void testScanlines_darkensOddRows() {
+        App.PostProcessor pp = new App.PostProcessor().add(new App.ScanlinesFilter(0.5f));
+        int[] frame = new int[W * H];
+        Arrays.fill(frame, 0xFFFFFF);
+
+        pp.process(frame, W, H);
+
+        assertEquals(0xFFFFFF, frame[0]);
+        assertEquals(0x7F7F7F, frame[W]);
+    }
+
+    @Test
+    public void testBloom_onlyMakesBrightAreasGlow() {
+        App.PostProcessor pp = new App.PostProcessor().add(new App.BloomFilter(128, 2, 1.0f));
+        int[] frame = new int[W * H];
+        Arrays.fill(frame, 0x404040);
+        for (int y = 20; y < 24; y++) {
+            Arrays.fill(frame, y * W + 20, y * W + 24, 0xFFFFFF);
+        }
+
+        pp.process(frame, W, H);
+
+        assertEquals(0x404040, frame[5 * W + 5], "Expected dark areas to be unchanged");
+        assertTrue((frame[25 * W + 25] & 0xFF) > 0x40, "Expected the bright area neighbours to glow");
+    }
+}
@@ -0,0 +1,89 @@
+package com.snapgames.demo.oneoone;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RenderQueueTest {
+
+    @Test
+    public void testFlush_higherLayerDrawnOver() {
+        App.RenderQueue q = new App.RenderQueue();
+        BufferedImage img = new BufferedImage(20, 20, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = img.createGraphics();
+
+        q.fillRect(1, Color.RED, 0, 0, 10, 10);
+        q.fillRect(0, Color.BLUE, 0, 0, 20, 20);
+        q.flush(g);
+        g.dispose();
+
+        assertEquals(Color.RED.getRGB(), img.getRGB(5, 5), "Expected the layer 1 to be drawn over layer 0");
+        assertEquals(Color.BLUE.getRGB(), img.getRGB(15, 15));
+        assertEquals(0, q.size(), "Expected the queue to be empty after flush");
+    }
+
+    @Test
+    public void testFlush_stateChangesAreGrouped() {
+        App.RenderQueue q = new App.RenderQueue();
+        BufferedImage img = new BufferedImage(200, 20, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = img.createGraphics();
+
+        for (int i = 0; i < 100; i++) {
+            q.fillRect(0, i % 2 == 0 ? Color.RED : Color.GREEN, i * 2, 0, 2, 2);
+        }
+        q.flush(g);
+        g.dispose();
+
+        assertEquals(100, q.executed);
+        assertEquals(2, q.stateChanges, "Expected one color change per color");
+        assertEquals(Color.RED.getRGB(), img.getRGB(0, 0));
+        assertEquals(Color.GREEN.getRGB(), img.getRGB(2, 0));
+    }
+
+    @Test
+    public void testFlush_overlappingCommandsKeepSubmissionOrder() {
+        App.RenderQueue q = new App.RenderQueue();
+        BufferedImage img = new BufferedImage(20, 20, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = img.createGraphics();
+
+        q.fillRect(0, Color.RED, 0, 0, 10, 10);
+        q.fillRect(0, Color.GREEN, 5, 5, 10, 10);
+        q.fillRect(0, Color.RED, 12, 12, 8, 8);
+        q.flush(g);
+        g.dispose();
+
+        assertEquals(Color.GREEN.getRGB(), img.getRGB(7, 7), "Expected the later command drawn over the earlier one");
+        assertEquals(Color.RED.getRGB(), img.getRGB(13, 13), "Expected the last command drawn over the green one");
+        assertEquals(Color.RED.getRGB(), img.getRGB(2, 2));
+    }
+
+    @Test
+    public void testDraw_entityMatchesDirectDrawing() {
+        App.GameObject e = new App.GameObject("box")
+                .setPosition(4, 4)
+                .setSize(8, 8)
+                .setColor(Color.WHITE)
+                .setFillColor(Color.BLUE);
+        BufferedImage direct = new BufferedImage(20, 20, BufferedImage.TYPE_INT_RGB);
+        Graphics2D gd = direct.createGraphics();
+        e.draw(gd);
+        gd.dispose();
+
+        App.RenderQueue q = new App.RenderQueue();
+        BufferedImage queued = new BufferedImage(20, 20, BufferedImage.TYPE_INT_RGB);
+        Graphics2D gq = queued.createGraphics();
+        e.draw(q);
+        q.flush(gq);
+        gq.dispose();
+
+        for (int y = 0; y < 20; y++) {
+            for (int x = 0; x < 20; x++) {
+                assertEquals(direct.getRGB(x, y), queued.getRGB(x, y), "Pixel %d,%d differs".formatted(x, y));
+            }
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.snapgames.demo.oneoone;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RenderTest {
+
+    private static final String GOLDEN = "/golden/scene_800x600.png";
+
+    private static App.RenderHarness createHarness() {
+        App.RenderHarness harness = new App.RenderHarness(new App(), 800, 600);
+        // texts depend on the fonts installed on the system.
+        harness.app.hud = false;
+        return harness;
+    }
+
+    private static App.RenderHarness createScaledHarness() {
+        App.RenderHarness harness = createHarness();
+        harness.app.renderScale = 0.5f;
+        harness.app.renderTarget = harness.app.createScaledTarget(harness.target);
+        return harness;
+    }
+
+    @Test
+    public void testRender_matchesGoldenImage() throws IOException {
+        BufferedImage golden = App.RenderHarness.loadGolden(GOLDEN);
+        assertNotNull(golden, "Missing golden image, generate it with: App$RenderHarness 1 src/test/resources" + GOLDEN);
+
+        App.RenderHarness harness = createHarness();
+        harness.run(1, 0, false);
+
+        int differences = App.RenderHarness.countDifferences(harness.getImage(), golden, 8);
+        assertTrue(App.RenderHarness.matches(harness.getImage(), golden, 8, 0.001),
+                "Expected the frame to match the golden image, %d pixels differ".formatted(differences));
+    }
+
+    @Test
+    public void testRender_dirtyModeMatchesFullRedraw() {
+        App.RenderHarness full = createHarness();
+        App.RenderHarness dirty = createHarness();
+        dirty.app.dirtyRendering = true;
+        // replay the same moves in both scenes.
+        for (int i = 0; i < 5; i++) {
+            full.run(1, 16, false);
+            dirty.run(1, 16, false);
+            full.app.getEntities().forEach(e -> e.x += 3);
+            dirty.app.getEntities().forEach(e -> e.x += 3);
+        }
+
+        assertEquals(0, App.RenderHarness.countDifferences(full.getImage(), dirty.getImage(), 0),
+                "Expected dirty rendering to produce the full redraw frame");
+    }
+
+    @Test
+    public void testRender_dirtyTiledModeClipsParticlesAtScreenEdge() {
+        App.RenderHarness harness = createHarness();
+        harness.app.dirtyRendering = true;
+        harness.app.displayListRendering = true;
+        harness.app.tiledRendering = true;
+        harness.app.getEntities().stream()
+                .filter(e -> e.name.startsWith("box_"))
+                .forEach(e -> e.setActive(false));
+        App.Entity<?> player = harness.app.getEntities().stream()
+                .filter(e -> e.name.equals("player"))
+                .findFirst().orElseThrow();
+        // particles emitted at the top border fly past the screen edges.
+        for (int i = 0; i < 30; i++) {
+            player.setPosition(400, 4);
+            assertDoesNotThrow(() -> harness.run(1, 16, true), "Expected dirty regions clipped to the screen");
+        }
+
+        assertTrue(harness.app.particles.count > 0, "Expected live particles around the player");
+        assertTrue((int) harness.stats.get("particlesDrawn") > 0, "Expected particles drawn in the dirty regions");
+    }
+
+    @Test
+    public void testRender_queueKeepsPainterOrder() {
+        App.RenderHarness painter = createHarness();
+        App.RenderHarness queued = createHarness();
+        painter.app.queueRendering = false;
+        queued.app.queueRendering = true;
+        painter.run(1, 0, false);
+        queued.run(1, 0, false);
+
+        assertEquals(0, App.RenderHarness.countDifferences(painter.getImage(), queued.getImage(), 0),
+                "Expected the render queue to keep the drawing order of overlapping entities");
+    }
+
+    @Test
+    public void testRender_tiledModeMatchesJava2D() {
+        App.RenderHarness java2d = createHarness();
+        App.RenderHarness tiled = createHarness();
+        tiled.app.tiledRendering = true;
+        java2d.run(1, 0, false);
+        tiled.run(1, 0, false);
+
+        assertEquals(0, App.RenderHarness.countDifferences(java2d.getImage(), tiled.getImage(), 0),
+                "Expected the tiled rasterizer to match the Java2D frame");
+    }
+
+    @Test
+    public void testRender_scaledFrameIsUpscaledToTarget() {
+        App.RenderHarness full = createHarness();
+        App.RenderHarness scaled = createHarness();
+        scaled.app.renderScale = 0.5f;
+        scaled.app.renderTarget = scaled.app.createScaledTarget(scaled.target);
+        full.run(1, 0, false);
+        scaled.run(1, 0, false);
+
+        // the half resolution frame only differs on the entity borders.
+        int differences = App.RenderHarness.countDifferences(full.getImage(), scaled.getImage(), 8);
+        assertTrue(App.RenderHarness.matches(full.getImage(), scaled.getImage(), 8, 0.04),
+                "Expected the upscaled frame to look like the full resolution one, %d pixels differ".formatted(differences));
+        assertEquals(0.5f, scaled.stats.get("renderScale"));
+    }
+
+    @Test
+    public void testRender_scaledDirtyAndTiledModesDrawAtInternalSize() {
+        App.RenderHarness full = createHarness();
+        App.RenderHarness reference = createScaledHarness();
+        App.RenderHarness dirty = createScaledHarness();
+        App.RenderHarness tiled = createScaledHarness();
+        dirty.app.dirtyRendering = true;
+        tiled.app.tiledRendering = true;
+        full.run(1, 0, false);
+        reference.run(1, 0, false);
+        dirty.run(1, 0, false);
+        tiled.run(1, 0, false);
+
+        assertEquals(400, tiled.app.tileRasterizer.getImage().getWidth(),
+                "Expected the tiled rasterizer to draw at the internal resolution");
+        assertEquals(0, App.RenderHarness.countDifferences(reference.getImage(), dirty.getImage(), 0),
+                "Expected the dirty frame to be drawn at the internal resolution");
+        // the half resolution frame only differs on the entity borders.
+        int differences = App.RenderHarness.countDifferences(full.getImage(), tiled.getImage(), 8);
+        assertTrue(App.RenderHarness.matches(full.getImage(), tiled.getImage(), 8, 0.04),
+                "Expected the upscaled tiled frame to look like the full resolution one, %d pixels differ".formatted(differences));
+    }
+
+    @Test
+    public void testAdapt_lowersScaleOverBudgetAndRaisesItBack() {
+        App.ScaledTarget scaled = new App.ScaledTarget(new App.ImageTarget(80, 60), 1.0f);
+        scaled.budget = 10;
+
+        scaled.adapt(20);
+        scaled.adapt(20);
+        assertEquals(0.75f, scaled.getScale(), 0.001f, "Expected each slow frame to lower the scale");
+
+        for (int i = 0; i < scaled.fastFramesToRaise; i++) {
+            scaled.adapt(1);
+        }
+        assertEquals(0.875f, scaled.getScale(), 0.001f, "Expected a series of fast frames to raise the scale");
+    }
+
+    @Test
+    public void testAdapt_neverRaisesScaleAboveConfiguredOne() {
+        App.ScaledTarget scaled = new App.ScaledTarget(new App.ImageTarget(80, 60), 0.1f);
+        scaled.budget = 10;
+
+        scaled.adapt(20);
+        assertEquals(0.1f, scaled.getScale(), 0.001f, "Expected a slow frame to keep a scale under the minimum one");
+    }
+
+    @Test
+    public void testRun_reportsFrameTime() {
+        App.RenderHarness harness = createHarness();
+        harness.run(10, 16, true);
+        double ms = harness.run(50, 16, true);
+
+        assertTrue(ms > 0, "Expected a measured frame time");
+        assertTrue(ms < 100, "Expected a frame rendered in less than 100 ms, got %.3f ms".formatted(ms));
+    }
+}
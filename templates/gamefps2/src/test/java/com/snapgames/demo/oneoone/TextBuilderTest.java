@@ -0,0 +1,58 @@
+package com.snapgames.demo.oneoone;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TextBuilderTest {
+
+    @Test
+    public void testAppend_padsIntegersWithZeros() {
+        App.TextBuilder tb = new App.TextBuilder(4);
+        tb.append("FPS:").append(7, 3).append(' ').append(-42, 4).append(' ').append(12345, 2);
+
+        assertEquals("FPS:007 -0042 12345", tb.toString());
+        assertEquals(Long.toString(Long.MIN_VALUE), tb.clear().append(Long.MIN_VALUE).toString());
+    }
+
+    @Test
+    public void testAppend_roundsDecimals() {
+        App.TextBuilder tb = new App.TextBuilder(16);
+
+        assertEquals("0.50", tb.clear().append(0.5, 2).toString());
+        assertEquals("-1.3", tb.clear().append(-1.25, 1).toString());
+        assertEquals("3", tb.clear().append(2.6, 0).toString());
+    }
+
+    @Test
+    public void testAppendTime_formatsDuration() {
+        long time = ((((2 * 24 + 5) * 60 + 7) * 60) + 9) * 1000L + 42;
+
+        assertEquals("2-05:07:09.042", new App.TextBuilder(16).appendTime(time).toString());
+        assertEquals("0-00:00:00.000", App.convertLongTimeToString(0));
+    }
+
+    @Test
+    public void testAppend_doesNotAllocate() {
+        com.sun.management.ThreadMXBean mx = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        App.TextBuilder tb = new App.TextBuilder(128);
+        for (int i = 0; i < 10_000; i++) {
+            build(tb, i);
+        }
+        long before = mx.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < 10_000; i++) {
+            build(tb, i);
+        }
+        long allocated = mx.getCurrentThreadAllocatedBytes() - before;
+
+        // a few bytes for the measurement itself, far from an allocation per call.
+        assertTrue(allocated < 1024, "Expected no allocation, got %d bytes".formatted(allocated));
+    }
+
+    private static void build(App.TextBuilder tb, int i) {
+        tb.clear().append("[ FPS:").append(i, 3).append(" | time:").appendTime(i * 1234L)
+                .append(" | scale:").append(i * 0.01, 2).append(" ]");
+    }
+}
@@ -0,0 +1,101 @@
+package com.snapgames.demo.oneoone;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TextCacheTest {
+
+    private static Graphics2D createGraphics(BufferedImage img) {
+        Graphics2D g = img.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        return g;
+    }
+
+    @Test
+    public void testStringWidth_matchesFontMetrics() {
+        App.TextCache cache = new App.TextCache();
+        BufferedImage img = new BufferedImage(200, 50, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = createGraphics(img);
+        Font font = cache.derive(g.getFont(), Font.BOLD, 24.0f);
+        g.setFont(font);
+
+        int expected = g.getFontMetrics().stringWidth("Score 00042");
+        assertEquals(expected, cache.stringWidth("Score 00042", font, Color.WHITE), 1);
+        g.dispose();
+    }
+
+    @Test
+    public void testDraw_rasterizedOnSecondUseAndReused() {
+        App.TextCache cache = new App.TextCache();
+        BufferedImage img = new BufferedImage(200, 50, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = createGraphics(img);
+        Font font = cache.derive(g.getFont(), Font.PLAIN, 12.0f);
+
+        cache.draw(g, "hello", 10, 30, font, Color.WHITE);
+        assertEquals(0, cache.getBytes(), "Expected no image after the first use");
+        cache.draw(g, "hello", 10, 30, font, Color.WHITE);
+        long bytes = cache.getBytes();
+        assertTrue(bytes > 0, "Expected an image after the second use");
+        cache.draw(g, "hello", 10, 30, font, Color.WHITE);
+        assertEquals(bytes, cache.getBytes(), "Expected the image to be reused");
+        assertEquals(1, cache.misses);
+        assertEquals(2, cache.hits);
+        g.dispose();
+    }
+
+    @Test
+    public void testDraw_cachedImageMatchesDrawString() {
+        App.TextCache cache = new App.TextCache();
+        BufferedImage direct = new BufferedImage(200, 50, BufferedImage.TYPE_INT_ARGB);
+        BufferedImage cached = new BufferedImage(200, 50, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D gd = createGraphics(direct);
+        Font font = cache.derive(gd.getFont(), Font.BOLD, 18.0f);
+        gd.setFont(font);
+        gd.setColor(Color.ORANGE);
+        gd.drawString("FPS:060", 20, 30);
+        gd.dispose();
+
+        Graphics2D gc = createGraphics(cached);
+        cache.draw(gc, "FPS:060", 20, 30, font, Color.ORANGE);
+        cache.draw(gc, "FPS:060", 20, 30, font, Color.ORANGE);
+        gc.dispose();
+
+        int different = 0, inked = 0;
+        for (int y = 0; y < 50; y++) {
+            for (int x = 0; x < 200; x++) {
+                int a = direct.getRGB(x, y) >>> 24, b = cached.getRGB(x, y) >>> 24;
+                if (a > 0) {
+                    inked++;
+                }
+                if (Math.abs(a - b) > 64) {
+                    different++;
+                }
+            }
+        }
+        assertTrue(inked > 0);
+        assertTrue(different <= inked / 20, "Expected the cached text to match, %d/%d pixels differ".formatted(different, inked));
+    }
+
+    @Test
+    public void testEvict_memoryBudgetIsKept() {
+        App.TextCache cache = new App.TextCache();
+        cache.maxBytes = 16 * 1024;
+        BufferedImage img = new BufferedImage(10, 10, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = createGraphics(img);
+        Font font = cache.derive(g.getFont(), Font.PLAIN, 16.0f);
+        for (int i = 0; i < 200; i++) {
+            String text = "%05d".formatted(i);
+            cache.draw(g, text, 0, 0, font, Color.WHITE);
+            cache.draw(g, text, 0, 0, font, Color.WHITE);
+            assertTrue(cache.getBytes() <= cache.maxBytes, "Expected the cache to stay in its budget");
+        }
+        g.dispose();
+    }
+}